@@ -0,0 +1,130 @@
+package com.cliffc.aa;
+
+import com.cliffc.aa.node.Node;
+import com.cliffc.aa.node.Work;
+import com.cliffc.aa.type.Type;
+import com.cliffc.aa.type.TypeMem;
+import com.cliffc.aa.util.SB;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-pipeline compile latency: Parse, iter(PesiNoCG), gcp(Opto),
+ * iter(PesiCG), gcp(Opto), iter(PesiCG); see Parse.go().  One op is one pass
+ * over the whole corpus.  Per-phase times come from Parse.PHASE_NS, and are
+ * reported both as JMH aux counters (totals per iteration) and as a per-op
+ * table at the end of the trial.  The worklist order is a parameter; each
+ * program's result is checked against a LIFO compile, and any difference is
+ * reported, as the optimizer is not guaranteed to be confluent.
+ *
+ * Run with: make bench
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xss8m"})
+public class BenchCompile {
+
+  // Fixed corpus, lifted from TestParse.  All compile without errors.
+  public static final String[] CORPUS = new String[] {
+    "1+2*3",
+    "x=2; y=x+1; x*y",
+    "math_rand(1) && (x=2;x*x) || 3 && 4",
+    "x=3; mul2={x -> x*2}; mul2(2.1)+mul2(x)",
+    "fact = { x -> x <= 1 ? x : x*fact(x-1) }; fact(3)",
+    "fib = { x -> x <= 1 ? 1 : fib(x-1)+fib(x-2) }; fib(4)",
+    "is_even = { n -> n ? is_odd(n-1) : 1}; is_odd = {n -> n ? is_even(n-1) : 0}; is_even(99)",
+    "x=@{a:=1;b=@{a=a+1;c=a}}; x.a*10+x.b.c",
+    "A= :@{n=A?; v=flt}; f={x:A? -> x ? A(f(x.n),x.v*x.v) : 0}; f(A(0,1.2)).v;",
+    "f0 = { f x -> x ? f(f0(f,x-1),1) : 0 }; f0({+},2)",
+    "tmp=((0,1.2),2.3); sq={x->x*x}; map={f t -> t ? (map(f,t.0),f t.1) : 0}; map(sq,tmp).1",
+    "noinline_x={@{a}}; x0=noinline_x(); x1=noinline_x(); x0.a:=2; x1.a",
+    "sum={x -> x ? sum(x.n) + x.v : 0};"+
+    "sum(@{n=math_rand(1)?0:@{n=math_rand(1)?0:@{n=math_rand(1)?0:@{n=0;v=1};v=2};v=3};v=4})",
+    "tmp=@{"+
+    "  l=@{ l=@{ l=0; r=0; v=3 }; r=@{ l=0; r=0; v=7 }; v=5 };"+
+    "  r=@{ l=@{ l=0; r=0; v=15 }; r=@{ l=0; r=0; v=22 }; v=20 };"+
+    "  v=12 };"+
+    "map={tree -> tree ? @{ll=map(tree.l);rr=map(tree.r);vv=tree.v&tree.v} : 0};"+
+    "map(tmp)",
+    "find={list pred -> !list ? ^0; pred(list.1) ? ^list.1; find(list.0,pred)}; find(((0,3),2),{e -> e&1})",
+    "gen = {cnt:=0;({cnt++},{cnt})};"+
+    "tmp:=gen(); incA=tmp.0;getA=tmp.1;"+
+    "tmp:=gen(); incB=tmp.0;getB=tmp.1;"+
+    "incA();incB();incA(); getA()*10+getB()",
+    "ary = [3]; ary[0]:=0; ary[1]:=1; ary[2]:=2; (ary[0],ary[1],ary[2])",
+    "id={x->x};id({+})(id(1),id(math_pi))",
+  };
+
+  // Per-phase nanos and optimizer iteration counts, summed per iteration.
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Phases {
+    public long parse, iter_nocg, gcp1, iter_cg1, gcp2, iter_cg2;
+    public long iter_cnt, iter_cnt_noop;
+    @Setup(Level.Iteration) public void clear() {
+      parse = iter_nocg = gcp1 = iter_cg1 = gcp2 = iter_cg2 = 0;
+      iter_cnt = iter_cnt_noop = 0;
+    }
+  }
+
+  // Meet memo capacity; try e.g. -p meet_cache=256,4096,65536
+  @Param({"65536"}) public int meet_cache;
+  // GVNGCM.iter worklist order; narrow with e.g. -p order=LIFO
+  @Param({"LIFO","FIFO","RPO"}) public String order;
+
+  private long _ops;
+  private final long[] _trial_ns = new long[Parse.PHASES.length];
+  private long _trial_iter, _trial_noop;
+  private final Type[] _lifo = new Type[CORPUS.length]; // Results under LIFO order
+  private final boolean[] _differs = new boolean[CORPUS.length];
+
+  @Setup(Level.Trial) public void setup() {
+    Type.meet_cache_capacity(meet_cache);
+    TypeMem.sharp_cache_capacity(TypeMem.SHARP_CACHE_DEFAULT); // Clears the stats
+    Work.ORDER = Work.Order.LIFO;
+    for( int i=0; i<CORPUS.length; i++ ) // Also loads primitives, outside of timing
+      _lifo[i] = Exec.go(Env.file_scope(Env.top_scope()),"bench",CORPUS[i])._t;
+    Work.ORDER = Work.Order.valueOf(order);
+  }
+
+  @Benchmark public int compile( Phases ph ) {
+    int errs=0;
+    for( int p=0; p<CORPUS.length; p++ ) {
+      java.util.Arrays.fill(Parse.PHASE_NS,0);
+      TypeEnv te = Exec.go(Env.file_scope(Env.top_scope()),"bench",CORPUS[p]);
+      if( te._errs != null ) errs++;
+      if( te._t != _lifo[p] ) _differs[p] = true;
+      long[] ns = Parse.PHASE_NS;
+      ph.parse    += ns[0];  ph.iter_nocg += ns[1];
+      ph.gcp1     += ns[2];  ph.iter_cg1  += ns[3];
+      ph.gcp2     += ns[4];  ph.iter_cg2  += ns[5];
+      ph.iter_cnt += GVNGCM.ITER_CNT;
+      ph.iter_cnt_noop += GVNGCM.ITER_CNT_NOOP;
+      for( int i=0; i<ns.length; i++ ) _trial_ns[i] += ns[i];
+      _trial_iter += GVNGCM.ITER_CNT;
+      _trial_noop += GVNGCM.ITER_CNT_NOOP;
+    }
+    _ops++;
+    return errs;                // Consumed by JMH, and should be zero
+  }
+
+  @TearDown(Level.Trial) public void report() {
+    SB sb = new SB().p("Worklist order ").p(order).p(", per-op phase times (corpus of ").p(CORPUS.length).p(" programs, ").p(_ops).p(" ops)").nl();
+    long sum=0;
+    for( long ns : _trial_ns ) sum += ns;
+    for( int i=0; i<_trial_ns.length; i++ )
+      sb.p(String.format("  %-10s %10.3f ms/op %5.1f%%",Parse.PHASES[i],_trial_ns[i]/1e6/_ops,100.0*_trial_ns[i]/sum)).nl();
+    sb.p(String.format("  ITER_CNT %d/op, ITER_CNT_NOOP %d/op",_trial_iter/_ops,_trial_noop/_ops)).nl();
+    sb.p("  ").p(Type.meet_cache_stats()).nl();
+    sb.p("  ").p(TypeMem.sharp_cache_stats()).nl();
+    sb.p("  ").p(Node.VALS.stats()).nl();
+    sb.p("  ").p(Node.uid_stats()).nl();
+    for( int p=0; p<CORPUS.length; p++ )
+      if( _differs[p] ) sb.p("  Result differs from LIFO: ").p(CORPUS[p]).nl();
+    System.out.print(sb);
+  }
+}
@@ -0,0 +1,78 @@
+package com.cliffc.aa;
+
+import com.cliffc.aa.type.Type;
+import com.cliffc.aa.util.SB;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GCP time against fork-join thread count, on one program of many functions.
+ * The functions are not inlined, so each is its own GCP partition.  One op
+ * is one compile; the gcp counter is the time in both GCP phases, summed per
+ * iteration.  par=0 is the worklist solver.  Results are checked against it.
+ *
+ * Run with: make bench BENCH_ARGS="BenchGCP"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xss8m"})
+public class BenchGCP {
+
+  @Param({"0","1","2","4"}) public int par;
+  @Param({"32"}) public int funs;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Phases {
+    public long gcp;
+    @Setup(Level.Iteration) public void clear() { gcp = 0; }
+  }
+
+  private String _prog;
+  private Type _ref;            // Result under the worklist solver
+  private boolean _differs;
+  private long _ops, _gcp_ns;
+
+  // funs functions each building, reading and testing a struct, all called
+  // from the top level
+  static String program( int funs ) {
+    SB sb = new SB();
+    for( int i=0; i<funs; i++ )
+      sb.p("noinline_f").p(i).p("={x y -> p=@{a=x*").p(i+1).p(";b=y+x;c=x*y}; q=@{n=p;v=p.c-").p(i)
+        .p("}; q.n.a > q.n.b ? q.v+q.n.a : q.n.b*2-q.v};");
+    sb.p("0");
+    for( int i=0; i<funs; i++ )
+      sb.p("+noinline_f").p(i).p("(").p(i).p(",").p(funs-i).p(")");
+    return sb.toString();
+  }
+
+  @Setup(Level.Trial) public void setup() {
+    _prog = program(funs);
+    GVNGCM.PAR_GCP = 0;         // Also loads primitives, outside of timing
+    _ref = Exec.go(Env.file_scope(Env.top_scope()),"bench",_prog)._t;
+    GVNGCM.PAR_GCP = par;
+  }
+  @TearDown(Level.Trial) public void teardown() {
+    GVNGCM.PAR_GCP = 0;
+    SB sb = new SB().p("Fork-join GCP, ").p(par).p(" threads, ").p(funs).p(" functions, ")
+      .p(Runtime.getRuntime().availableProcessors()).p(" cpus").nl();
+    sb.p(String.format("  gcp %.3f ms/op",_gcp_ns/1e6/_ops)).nl();
+    if( _differs ) sb.p("  Result differs from the worklist solver").nl();
+    System.out.print(sb);
+  }
+
+  @Benchmark public int compile( Phases ph ) {
+    java.util.Arrays.fill(Parse.PHASE_NS,0);
+    TypeEnv te = Exec.go(Env.file_scope(Env.top_scope()),"bench",_prog);
+    if( te._t != _ref ) _differs = true;
+    long ns = Parse.PHASE_NS[2]+Parse.PHASE_NS[4]; // Both gcp(Opto) phases
+    ph.gcp += ns;
+    _gcp_ns += ns;
+    _ops++;
+    return te._errs==null ? 0 : 1; // Consumed by JMH, and should be zero
+  }
+}
@@ -0,0 +1,96 @@
+package com.cliffc.aa;
+
+import com.cliffc.aa.node.FunNode;
+import com.cliffc.aa.node.InlinePolicy;
+import com.cliffc.aa.type.Type;
+import com.cliffc.aa.util.SB;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compile time against result precision, by inlining policy.  One op is one
+ * pass over the BenchCompile corpus.  Each program's result is compared to
+ * its result under the default policy: the same, sharper (isa the default
+ * result), duller (the default isa it) or unrelated.  The end-of-trial
+ * report also has the policy's decision counts and nodes cloned per op.
+ *
+ * Policies:
+ *   none    - no size-inlining; type-specialization only
+ *   tight   - half the default body limits
+ *   budget  - default limits, but 100 cloned Nodes per compilation
+ *   default - FunNode.split_size's historical limits, no budget
+ *   wide    - twice the default limits, one more IF, thunk calls score
+ *
+ * Run with: make bench BENCH_ARGS="BenchInline"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xss8m"})
+public class BenchInline {
+
+  @Param({"none","tight","budget","default","wide"}) public String policy;
+
+  private final Type[] _ref = new Type[BenchCompile.CORPUS.length]; // Results under the default policy
+  private final Type[] _rez = new Type[BenchCompile.CORPUS.length];
+  private long _ops, _spent;
+
+  static InlinePolicy policy( String name ) {
+    InlinePolicy p = new InlinePolicy();
+    switch( name ) {
+    case "none":    p._max_size_inlines = 0;  break;
+    case "tight":
+      p._max_calls = 1;  p._max_loads = 2;  p._max_stores = 1;  p._max_prims = 3;  p._max_newobjs = 1;
+      break;
+    case "budget":  p._budget = 100;  break;
+    case "default": break;
+    case "wide":
+      p = new InlinePolicy() {  // Thunk calls count as much as constants
+          @Override public int score( int ncons, int call_thunk, boolean self_recursive ) { return ncons+call_thunk; }
+        };
+      p._max_calls = 4;  p._max_loads = 8;  p._max_stores = 4;  p._max_prims = 12;  p._max_newobjs = 3;
+      p._if_slack = 2;  p._max_size_inlines = 20;
+      break;
+    default: throw new IllegalArgumentException(name);
+    }
+    return p;
+  }
+
+  @Setup(Level.Trial) public void setup() {
+    FunNode.INLINE = new InlinePolicy();
+    for( int i=0; i<_ref.length; i++ ) // Also loads primitives, outside of timing
+      _ref[i] = Exec.go(Env.file_scope(Env.top_scope()),"bench",BenchCompile.CORPUS[i])._t;
+    FunNode.INLINE = policy(policy);
+  }
+
+  @Benchmark public int compile() {
+    int errs=0;
+    for( int p=0; p<_rez.length; p++ ) {
+      TypeEnv te = Exec.go(Env.file_scope(Env.top_scope()),"bench",BenchCompile.CORPUS[p]);
+      if( te._errs != null ) errs++;
+      _rez[p] = te._t;
+      _spent += FunNode.INLINE.spent();
+    }
+    _ops++;
+    return errs;                // Consumed by JMH
+  }
+
+  @TearDown(Level.Trial) public void report() {
+    int same=0, sharper=0, duller=0, other=0;
+    for( int p=0; p<_rez.length; p++ ) {
+      Type t = _rez[p], ref = _ref[p];
+      if( t==ref ) same++;
+      else if( t.isa(ref) ) sharper++;
+      else if( ref.isa(t) ) duller++;
+      else other++;
+    }
+    SB sb = new SB().p("Inline policy ").p(policy).p(", ").p(_ops).p(" ops").nl();
+    sb.p(String.format("  results vs default: %d same, %d sharper, %d duller, %d unrelated",same,sharper,duller,other)).nl();
+    sb.p(String.format("  nodes cloned %d/op",_ops==0 ? 0 : _spent/_ops)).nl();
+    sb.p("  ").p(FunNode.INLINE.report()).nl();
+    System.out.print(sb);
+  }
+}
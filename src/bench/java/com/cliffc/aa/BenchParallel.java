@@ -0,0 +1,63 @@
+package com.cliffc.aa;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.*;
+
+/**
+ * Compile throughput against thread count.  Each thread owns a
+ * CompileContext, a private copy of the compiler, and compiles the
+ * BenchCompile corpus once per op.  The 'programs' counter is programs
+ * compiled per second, summed over all threads.
+ *
+ * Run with: make bench BENCH_ARGS="BenchParallel"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 4)
+@Measurement(iterations = 5, time = 4)
+@Fork(value = 1, jvmArgsAppend = {"-Xss8m"})
+public class BenchParallel {
+
+  @Param({"1","2","4","8"}) public int threads;
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Programs {
+    public long programs;
+    @Setup(Level.Iteration) public void clear() { programs = 0; }
+  }
+
+  private ExecutorService _pool;
+  private final ArrayList<CompileContext> _ccs = new ArrayList<>();
+  private final ArrayList<Callable<Integer>> _work = new ArrayList<>();
+
+  @Setup(Level.Trial) public void setup() {
+    _pool = Executors.newFixedThreadPool(threads);
+    for( int i=0; i<threads; i++ ) {
+      CompileContext cc = new CompileContext();
+      _ccs.add(cc);
+      _work.add(() -> {
+        int errs=0;
+        for( String prog : BenchCompile.CORPUS )
+          if( cc.go("bench",prog)[1] != null ) errs++;
+        return errs;
+      });
+    }
+  }
+
+  @TearDown(Level.Trial) public void teardown() {
+    _pool.shutdown();
+    for( CompileContext cc : _ccs ) cc.close();
+  }
+
+  @Benchmark public int compile( Programs ps ) throws Exception {
+    int errs=0;
+    for( Future<Integer> f : _pool.invokeAll(_work) )
+      errs += f.get();
+    ps.programs += (long)threads*BenchCompile.CORPUS.length;
+    return errs;                // Consumed by JMH, and should be zero
+  }
+}
@@ -0,0 +1,57 @@
+package com.cliffc.aa.type;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TypeStruct.approx on deep recursive types.  Setup builds a 'depth' deep
+ * chain of structs, all with the same alias, as a linked 'list' (one pointer
+ * to the next level) or a 'tree' (pointers to the next two levels); one op
+ * approximates it to a small cutoff.  Everything past the cutoff is met into
+ * the last level kept, so the work grows with the depth.  The result is
+ * found in the intern table after the first op, so an op times the walk, the
+ * meets, and the shrink.
+ *
+ * Run with: make bench BENCH_ARGS="BenchApprox"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xss8m"})
+public class BenchApprox {
+  static final int CUTOFF = 2;
+
+  @Param({"list","tree"}) public String shape;
+  @Param({"10","100","1000"}) public int depth;
+
+  private int _alias;
+  private TypeStruct _ts;
+
+  @Setup(Level.Trial) public void setup() {
+    Object dummy0 = TypeStruct.TYPES, dummy1 = TypeMemPtr.TYPES;
+    _alias = BitsAlias.new_alias(BitsAlias.REC);
+    _ts = deep(shape.equals("tree"),_alias,depth);
+  }
+
+  // Each level gets its own small constant, placed before the pointers, so
+  // interning a level does not walk the whole chain below it.
+  static TypeStruct deep( boolean tree, int alias, int depth ) {
+    BitsAlias aliases = BitsAlias.make0(alias).meet_nil();
+    Type p1 = Type.NIL, p2 = Type.NIL; // Pointers to the last two levels
+    TypeStruct ts = null;
+    for( int i=0; i<depth; i++ ) {
+      TypeFld v = TypeFld.make("v",TypeInt.con(i%100),1);
+      ts = tree
+        ? TypeStruct.make(TypeFld.NO_DISP,v,TypeFld.make("l",p1,2),TypeFld.make("r",p2,3))
+        : TypeStruct.make(TypeFld.NO_DISP,v,TypeFld.make("n",p1,2));
+      p2 = p1;
+      p1 = TypeMemPtr.make(aliases,ts);
+    }
+    return ts;
+  }
+
+  @Benchmark public TypeStruct approx() { return _ts.approx(CUTOFF,_alias); }
+}
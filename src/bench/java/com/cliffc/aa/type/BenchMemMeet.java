@@ -0,0 +1,78 @@
+package com.cliffc.aa.type;
+
+import com.cliffc.aa.BenchCompile;
+import com.cliffc.aa.Env;
+import com.cliffc.aa.Exec;
+import com.cliffc.aa.util.Ary;
+import com.cliffc.aa.util.SB;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TypeMem meets replayed from a real trace.  The fork runs with
+ * -Daa.memtrace=true, so TypeMem.xmeet records its inputs; setup compiles the
+ * programs once, and one op re-runs all the recorded meets, calling the meets
+ * directly so the trace stops growing.  'structural' is the xmeet meet, which
+ * skips aliases mapped the same in both inputs; 'flat' is the whole-array
+ * meet it replaced.  Setup checks the two agree.  The inputs stay interned
+ * and the results are found in the intern table, so an op times the meet work
+ * and the intern probe.
+ *
+ * 'corpus' is the BenchCompile corpus, whose memories are mostly small.
+ * 'wide' has many allocation sites, a few updated under an if, so the
+ * memories are wide and the meets at the merges change only a few aliases.
+ *
+ * Run with: make bench BENCH_ARGS="BenchMemMeet"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xss8m","-Daa.memtrace=true"})
+public class BenchMemMeet {
+
+  @Param({"structural","flat"}) public String meet;
+  @Param({"corpus","wide"}) public String prog;
+
+  private boolean _flat;
+  private TypeMem[] _as, _bs;   // Recorded meet inputs, pairwise
+
+  @Setup(Level.Trial) public void setup() {
+    _flat = meet.equals("flat");
+    if( !TypeMem.TRACING ) throw new IllegalStateException("Run with -Daa.memtrace=true");
+    TypeMem.TRACE.clear();
+    for( String src : prog.equals("wide") ? new String[]{wide(30)} : BenchCompile.CORPUS )
+      Exec.go(Env.file_scope(Env.top_scope()),"bench",src);
+    Ary<TypeMem> trace = TypeMem.TRACE;
+    int n = trace._len>>1;
+    _as = new TypeMem[n];
+    _bs = new TypeMem[n];
+    long len=0;
+    for( int i=0; i<n; i++ ) {
+      TypeMem a = _as[i] = trace.at(2*i), b = _bs[i] = trace.at(2*i+1);
+      if( a.meet(b,false) != a.meet_flat(b,false) )
+        throw new IllegalStateException("Structural and flat meets differ: "+a+" & "+b);
+      len += Math.max(a.len(),b.len());
+    }
+    System.out.printf("%n%d traced meets, %.1f aliases on average%n",n,(double)len/Math.max(n,1));
+  }
+
+  // n structs, every 3rd updated under an if, and a sum of every 7th
+  private static String wide( int n ) {
+    SB sb = new SB();
+    for( int i=0; i<n; i++ ) sb.p("x").p(i).p("=@{a:=").p(i).p("};");
+    for( int i=0; i<n; i+=3 ) sb.p("math_rand(1) ? (x").p(i).p(".a:=").p(i+1).p(") : 0;");
+    sb.p("x0.a");
+    for( int i=1; i<n; i+=7 ) sb.p("+x").p(i).p(".a");
+    return sb.toString();
+  }
+
+  @Benchmark public int meets() {
+    int sum=0;
+    for( int i=0; i<_as.length; i++ )
+      sum += (_flat ? _as[i].meet_flat(_bs[i],false) : _as[i].meet(_bs[i],false))._hash;
+    return sum;                 // Consumed by JMH
+  }
+}
@@ -0,0 +1,77 @@
+package com.cliffc.aa;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/** A private copy of the compiler, for running compiles in parallel.
+ *
+ *  The compiler keeps its per-compile state in statics: Env.GVN, Env.START,
+ *  Node.VALS and Node.CNT, FunNode.FUNS, the BitsAlias and BitsFun trees,
+ *  TV2.UID, PrimNode.PRIMS, and the Type intern tables (whose meets depend on
+ *  the alias trees).  So one loading of the compiler classes runs one compile
+ *  at a time.  A context loads its own copy of the com.cliffc.aa classes, and
+ *  so owns its own copy of all that state: compiles in different contexts
+ *  share nothing and can run on different threads at once.
+ *
+ *  A context is itself single-threaded, like the compiler.  Contexts are
+ *  costly to make (the classes load and JIT again), so keep one per thread or
+ *  pool them.  Results cross back as Strings.  Close a context when done
+ *  with it, to release its class loader.
+ */
+public class CompileContext implements AutoCloseable {
+  private final URLClassLoader _loader; // Owns the private copy
+  private final Method _go;     // Exec.go_str, in the private copy
+
+  public CompileContext() {
+    URL url = CompileContext.class.getProtectionDomain().getCodeSource().getLocation();
+    _loader = new Isolated(new URL[]{url},CompileContext.class.getClassLoader());
+    try {
+      _go = _loader.loadClass(Exec.class.getName()).getMethod("go_str",String.class,String.class);
+    } catch( ClassNotFoundException | NoSuchMethodException e ) {
+      close();
+      throw new RuntimeException(e);
+    }
+  }
+
+  // Release the class loader; the context cannot compile afterwards
+  @Override public void close() {
+    try {
+      _loader.close();
+    } catch( IOException e ) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  // Compile a program; returns the result type and the first error (or null)
+  public synchronized String[] go( String src, String prog ) {
+    try {
+      return (String[])_go.invoke(null,src,prog);
+    } catch( IllegalAccessException e ) {
+      throw new RuntimeException(e);
+    } catch( InvocationTargetException e ) {
+      Throwable t = e.getCause();
+      if( t instanceof RuntimeException ) throw (RuntimeException)t;
+      if( t instanceof Error ) throw (Error)t;
+      throw new RuntimeException(t);
+    }
+  }
+
+  // Loads the compiler classes itself, child-first, instead of asking the
+  // parent; everything else (the JDK, annotations) comes from the parent.
+  private static class Isolated extends URLClassLoader {
+    Isolated( URL[] urls, ClassLoader parent ) { super(urls,parent); }
+    @Override protected Class<?> loadClass( String name, boolean resolve ) throws ClassNotFoundException {
+      if( !name.startsWith("com.cliffc.aa.") || name.equals(CompileContext.class.getName()) )
+        return super.loadClass(name,resolve);
+      synchronized( getClassLoadingLock(name) ) {
+        Class<?> c = findLoadedClass(name);
+        if( c == null ) c = findClass(name);
+        if( resolve ) resolveClass(c);
+        return c;
+      }
+    }
+  }
+}
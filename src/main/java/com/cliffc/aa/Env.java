@@ -68,11 +68,15 @@ public class Env implements AutoCloseable {
     return scope;
   }
 
-  // Makes a new top Env with primitives
+  // The primitive-loaded top Env, and a snapshot of it to restore from
+  private static Env TOP;
+  private static TopSnapshot TOP_SNAP;
+  private static BitsAlias ALL_DISPLAYS0, LEX_DISPLAYS0;
+
+  // Makes a new top Env with primitives.  The first call builds and optimizes
+  // the primitives; later calls restore that state from a snapshot.
   public static Env top_scope() {
-    boolean first_time = START == null;
-    if( first_time ) record_for_top_reset1();
-    else top_reset();
+    if( TOP != null ) { top_reset(); return TOP; }
 
     // Top-level default values; ALL_CTRL is used by declared functions to
     // indicate that future not-yet-parsed code may call the function.
@@ -107,8 +111,8 @@ public class Env implements AutoCloseable {
     // Run the worklist dry
     GVN.iter(GVNGCM.Mode.Parse);
 
-    if( first_time ) record_for_top_reset2();
-    return top;
+    record_for_top_reset();
+    return (TOP=top);
   }
 
   // A new Env for the current Parse scope (generally a file-scope or a
@@ -149,28 +153,34 @@ public class Env implements AutoCloseable {
     assert _scope.is_dead();
   }
 
-  // Record global static state for reset
-  private static void record_for_top_reset1() {
+  // Record global static state for reset, after loading the primitives
+  private static void record_for_top_reset() {
     BitsAlias.init0();
     BitsFun  .init0();
     BitsRPC  .init0();
+    GVN      .init0();
+    Node     .init0();
+    FunNode  .init0();
+    ALL_DISPLAYS0 = ALL_DISPLAYS;
+    LEX_DISPLAYS0 = LEX_DISPLAYS;
+    TOP_SNAP = new TopSnapshot(START,SCP_0,PrimNode.PRIMS(),NewNode.NewPrimNode.INTRINSICS(),TV2.NIL,TV2.DEAD);
+    Type     .freeze_intern();  // Types so far are permanent; compiles each get a generation
   }
-  private static void record_for_top_reset2() { GVN.init0(); Node.init0(); }
 
   // Reset all global statics for the next parse.  Useful during testing when
   // many top-level parses happen in a row.
   private static void top_reset() {
+    Type      .new_intern_generation(); // Last compile's types reclaimed, once unused
     BitsAlias .reset_to_init0();
     BitsFun   .reset_to_init0();
     BitsRPC   .reset_to_init0();
     TV2       .reset_to_init0();
     GVN       .reset_to_init0();
+    TOP_SNAP  .restore();       // Primitive Nodes and TV2s, before re-hashing them
     Node      .reset_to_init0();
     FunNode   .reset();
-    NewNode.NewPrimNode.reset();
-    PrimNode  .reset();
-    ALL_DISPLAYS = BitsAlias.EMPTY; // Reset aliases declared as Displays
-    LEX_DISPLAYS = BitsAlias.EMPTY;
+    ALL_DISPLAYS = ALL_DISPLAYS0; // Reset aliases declared as Displays
+    LEX_DISPLAYS = LEX_DISPLAYS0;
   }
 
   // Return Scope for a name, so can be used to determine e.g. mutability
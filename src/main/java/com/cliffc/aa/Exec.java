@@ -8,6 +8,13 @@ public abstract class Exec {
   public static TypeEnv go( Env top, String src, String str ) { // Execute string
     try( TypeEnv te = open(top,src,str) ) { return te; }
   }
+  // Compile a program in a fresh top scope, returning the result type and the
+  // first error (or null) as Strings.  Only JDK types in and out, so it can be
+  // called on a private copy of the compiler; see CompileContext.
+  public static String[] go_str( String src, String str ) {
+    TypeEnv te = go(Env.file_scope(Env.top_scope()),src,str);
+    return new String[]{te._t.toString(), te._errs==null ? null : te._errs.get(0).toString()};
+  }
   // Caller must close TypeEnv
   static TypeEnv open( Env top, String src, String str ) { // Execute string
     return (P=new Parse(src,top,str)).go();
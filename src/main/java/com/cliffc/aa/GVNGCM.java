@@ -6,7 +6,9 @@ import com.cliffc.aa.type.*;
 import com.cliffc.aa.util.Ary;
 import com.cliffc.aa.util.VBitSet;
 
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.concurrent.*;
 
 // Global Value Numbering, Global Code Motion
 public class GVNGCM {
@@ -21,6 +23,18 @@ public class GVNGCM {
   }
   public Mode _opt_mode=Mode.Parse;
 
+  // GCP solver.  The default pops one worklist, running both value() and
+  // live() on every node popped.  The sparse solver runs forward value() in
+  // reverse-post-order and reverse live() in post-order as separate sweeps,
+  // and only re-runs the direction that can have changed.  Defaults from
+  // -Daa.sparse_gcp and -Daa.par_gcp, so whole test suites can run under
+  // either solver; see 'make gcp_tests'.
+  public static boolean SPARSE_GCP = Boolean.getBoolean("aa.sparse_gcp");
+  // Fork-join GCP: the sparse solver run on each function body in parallel,
+  // exchanging boundary changes between rounds.  Thread count, or 0 for off.
+  public static int PAR_GCP = Integer.getInteger("aa.par_gcp",0);
+  public long _gcp_vals, _gcp_lives; // Count of value() and live() calls in GCP
+
   // Iterative worklists.
   private final Work _work_dead   = new Work("dead"  , false) { @Override public Node apply(Node n) { return n._keep==0 && n._uses._len == 0 ? n.kill() : null; } };
   private final Work _work_reduce = new Work("reduce", true ) { @Override public Node apply(Node n) { return n.do_reduce(); } };
@@ -29,6 +43,12 @@ public class GVNGCM {
   private final Work _work_grow   = new Work("grow"  , true ) { @Override public Node apply(Node n) { return n.do_grow  (); } };
   private final Work _work_inline = new Work("inline", false) { @Override public Node apply(Node n) { return ((FunNode)n).ideal_inline(false); } };
   public  final Work _work_dom    = new Work("dom"   , false) { @Override public Node apply(Node n) { return n.do_mono  (); } };
+  // Sparse GCP: partitions, partition by uid (null if only one), and Calls to
+  // wire at the end of a fork-join round.
+  private final Ary<FlowPart> _parts = new Ary<>(FlowPart.class);
+  private Ary<FlowPart> _owner;
+  private Ary<CallEpiNode> _wires;
+  private ForkJoinPool _pool;   // Fork-join GCP threads, made on first use
   @SuppressWarnings("unchecked")
   private final Work[]    _new_works = new Work[]{           _work_flow,_work_reduce,_work_mono,_work_grow             };
   @SuppressWarnings("unchecked")
@@ -36,13 +56,20 @@ public class GVNGCM {
   @SuppressWarnings("unchecked")
   private final Work[]    _all_works = new Work[]{_work_dead,_work_flow,_work_reduce,_work_mono,_work_grow,_work_inline};
   static private boolean HAS_WORK;
+  // In a fork-join GCP round: the shared worklists take adds from many threads
+  static private boolean PAR_FLOW;
   public boolean on_dead  ( Node n ) { return _work_dead  .on(n); }
-  public boolean on_flow  ( Node n ) { return _work_flow  .on(n); }
+  public boolean on_flow  ( Node n ) {
+    if( _work_flow.on(n) ) return true;
+    for( FlowPart p : _parts ) if( p.on(n) ) return true;
+    return false;
+  }
   public boolean on_reduce( Node n ) { return _work_reduce.on(n); }
 
   static public <N extends Node> N add_work( Work work, N n ) {
     if( n==null || n.is_dead() ) return n;
     if( !HAS_WORK ) HAS_WORK = true; // Filtered set
+    if( PAR_FLOW ) synchronized( work ) { return work.add(n); }
     return work.add(n);
   }
   public void add_dead  ( Node n ) { add_work(_work_dead, n); }
@@ -72,8 +99,7 @@ public class GVNGCM {
   }
   public Node add_work_all( Node n ) {
     if( n.is_dead() ) return n;
-    if( !HAS_WORK ) HAS_WORK = true; // Filtered set
-    for( Work work : _new_works ) work.add(n);
+    for( Work work : _new_works ) add_work(work,n);
     if( n instanceof FunNode )
       add_work(_work_inline,(FunNode)n);
     return n;
@@ -153,7 +179,7 @@ public class GVNGCM {
     boolean progress=true;
     while( progress ) {
       progress = false;
-      iter(null,_all_works);
+      iter(null,_all_works,true);
       // Only a very few nodes can make progress via dominance relations, and
       // these can make progress "very far" in the graph.  So instead of using
       // a neighbors list, we bulk revisit them here.
@@ -173,7 +199,11 @@ public class GVNGCM {
   // Returns 'x' or a replacement for 'x'.
   static int ITER_CNT;
   static int ITER_CNT_NOOP;
-  public Node iter(Node x, Work[] works) {
+  public Node iter(Node x, Work[] works) { return iter(x,works,false); }
+  // Whole-graph passes pull work in Work.ORDER.  Peephole passes over a Node
+  // mid-construction stay LIFO, so the new Node is visited before older work
+  // which may see it half-built.
+  private Node iter(Node x, Work[] works, boolean ordered) {
     if( !HAS_WORK ) return x;
     if( x!=null ) x.keep();
     while( true ) {
@@ -182,8 +212,11 @@ public class GVNGCM {
         if( !(W = work).isEmpty() )
           break;
       if( W.isEmpty() ) break;      // All worklists empty
-      Node n = W.pop();
+      Node n = ordered ? W.next() : W.pop();
+      long t0 = OpStats.ON ? System.nanoTime() : 0;
+      byte op = n._op;
       Node m = n.is_dead() ? null : W.apply(n);
+      if( OpStats.ON ) OpStats.add(OpStats.kind(W._name),op,m!=null,t0);
       if( m == null ) {       // not-null is progress
         ITER_CNT_NOOP++;      // No progress
       } else {
@@ -194,11 +227,22 @@ public class GVNGCM {
       }
     }
     HAS_WORK=false;
-    Node.roll_back_CNT();       // Can reclaim node numbers
+    reclaim_uids();             // Can reclaim node numbers
     if( x==null ) return null;  // No special node to track
     return x.unkeep();
   }
 
+  // If no worklist holds a dead Node, all dead uids can be handed out again,
+  // else only the dead tail.  Dead Nodes on _work_dom are otherwise purged
+  // lazily.
+  private void reclaim_uids() {
+    for( Work work : _all_works )
+      if( !work.isEmpty() ) { Node.roll_back_CNT(); return; }
+    for( int i=0; i<_work_dom.len(); i++ )
+      if( _work_dom.at(i).is_dead() ) _work_dom.del(i--);
+    Node.recycle_uids();
+  }
+
   // Global Optimistic Constant Propagation.  Passed in the final program state
   // (including any return result, i/o & memory state).  Returns the most-precise
   // types possible, and replaces constants types with constants.
@@ -232,13 +276,18 @@ public class GVNGCM {
     while( !_work_flow.isEmpty() ) {
       // Analysis phase.
       // Work down list until all reachable nodes types quit falling
+      if( PAR_GCP > 0 ) gcp_par(ambi_calls); // Both leave the flow worklist empty
+      else if( SPARSE_GCP ) gcp_sparse(ambi_calls);
       Node n;
       while( (n=_work_flow.pop()) != null ) {
         if( n.is_dead() ) continue; // Can be dead functions after removing ambiguous calls
 
         // Forwards flow
         Type oval = n._val;                                // Old local type
+        long t0 = OpStats.ON ? System.nanoTime() : 0;
         Type nval = n.value(_opt_mode);                    // New type
+        if( OpStats.ON ) OpStats.add(OpStats.VALUE,n._op,oval!=nval,t0);
+        _gcp_vals++;
         if( oval != nval ) {                               // Progress
           if( check_not_monotonic(n, oval, nval) ) continue; // Debugging hook
           n._val = nval;            // Record progress
@@ -257,7 +306,10 @@ public class GVNGCM {
 
         // Reverse flow
         TypeMem oliv = n._live;
+        t0 = OpStats.ON ? System.nanoTime() : 0;
         TypeMem nliv = n.live(_opt_mode);
+        if( OpStats.ON ) OpStats.add(OpStats.LIVE,n._op,oliv!=nliv,t0);
+        _gcp_lives++;
         if( oliv != nliv ) {      // Liveness progress
           if( check_not_monotonic(n, oliv, nliv) ) continue; // Debugging hook
           n._live = nliv;           // Record progress
@@ -266,16 +318,7 @@ public class GVNGCM {
             if( def!=null ) add_flow(def).add_flow_def_extra(n);
         }
         // See if we can resolve an unresolved
-        if( n instanceof CallNode && n._live != TypeMem.DEAD ) {
-          CallNode call = (CallNode)n;
-          if( call.ctl()._val == Type.CTRL && call._val instanceof TypeTuple ) { // Wait until the Call is reachable
-            // Track ambiguous calls: resolve after GCP gets stable, and if we
-            // can resolve we continue to let GCP fall.
-            BitsFun fidxs = CallNode.ttfp(call._val).fidxs();
-            if( fidxs.above_center() && fidxs.abit() == -1 && ambi_calls.find(call) == -1 )
-              ambi_calls.add(call);
-          }
-        }
+        track_ambi(n,ambi_calls);
         // Very expensive assert
         //assert Env.START.more_flow(false)==0; // Initial conditions are correct
       }
@@ -287,11 +330,204 @@ public class GVNGCM {
         remove_ambi(ambi_calls.pop());
     }
 
+    _parts.clear();
+    _owner = null;
     assert Env.START.more_flow(false)==0; // Final conditions are correct
     visit.clear();
     Env.START.walk_opt(visit);
   }
 
+  // Sparse GCP.  Forward flow is worked lowest uid first, approximating
+  // reverse-post-order as defs are mostly made before uses; reverse flow is
+  // worked highest uid first.  A value change queues the uses' values, and
+  // the liveness of the node and its uses (live_use reads the user's inputs).
+  // A liveness change queues the defs' liveness, and the node's own value
+  // (some nodes read their own liveness).  Anything the flow_extra hooks put
+  // on the flow worklist gets both.
+  private void gcp_sparse( Ary<CallNode> ambi_calls ) {
+    if( _parts.isEmpty() ) _parts.push(new FlowPart(ambi_calls));
+    do _parts.at(0).call().count();
+    while( !_work_flow.isEmpty() );
+  }
+
+  // Fork-join GCP.  Nodes are partitioned by owning function, and each
+  // partition runs the sparse solver to a local fixed point as a fork-join
+  // task.  Changes crossing a partition boundary (mostly Call args, Parms and
+  // Returns) go on the flow worklist, and are routed to their owner for the
+  // next round.  Call wiring changes the graph shape, so waits for the end of
+  // the round.
+  //
+  // Node flow runs unlocked.  Types are interned, and only new ones take the
+  // INTERN lock (see Type).  A node may read a def's type as another partition
+  // changes it, but every change re-queues the uses, so a stale read is
+  // re-done next round.  Node._val and _live are volatile, so a read Type is
+  // always completely built.  Adds to the shared worklists, Call wiring and
+  // the ambiguous calls are synchronized while the round runs.
+  private void gcp_par( Ary<CallNode> ambi_calls ) {
+    if( _parts.isEmpty() ) partition(ambi_calls);
+    // One pool per GVNGCM; idle workers time out, so no shutdown is needed
+    if( _pool == null || _pool.getParallelism() != PAR_GCP ) {
+      if( _pool != null ) _pool.shutdown();
+      _pool = new ForkJoinPool(PAR_GCP);
+    }
+    _wires = new Ary<>(CallEpiNode.class);
+    try {
+      while( !_work_flow.isEmpty() ) {
+        route();
+        ArrayList<FlowPart> tasks = new ArrayList<>();
+        for( FlowPart p : _parts ) if( !p.isEmpty() ) tasks.add(p);
+        PAR_FLOW = true;
+        try {
+          for( Future<FlowPart> f : _pool.invokeAll(tasks) ) f.get().count(); // Rethrows any failure
+        } finally { PAR_FLOW = false; }
+        while( !_wires.isEmpty() ) check_and_wire(_wires.pop());
+      }
+    } catch( InterruptedException e ) {
+      throw new RuntimeException(e);
+    } catch( ExecutionException e ) {
+      if( e.getCause() instanceof Error ) throw (Error)e.getCause();
+      throw new RuntimeException(e.getCause());
+    } finally {
+      _wires = null;
+    }
+  }
+
+  // Partition by owning FunNode: a forwards walk from each FunNode, stopping
+  // at other functions, wired Call projections and the Return, as in
+  // FunNode.find_body.  Everything else is in partition 0.
+  private void partition( Ary<CallNode> ambi_calls ) {
+    _parts.push(new FlowPart(ambi_calls));
+    _owner = new Ary<>(FlowPart.class);
+    Ary<Node> work = new Ary<>(new Node[1],0), funs = new Ary<>(new Node[1],0);
+    VBitSet visit = new VBitSet();
+    work.push(Env.START);
+    while( !work.isEmpty() ) {
+      Node n = work.pop();
+      if( n==null || visit.tset(n._uid) ) continue;
+      if( n instanceof FunNode ) funs.push(n);
+      work.addAll(n._defs);
+      work.addAll(n._uses);
+    }
+    for( Node fun : funs ) {
+      FlowPart p = _parts.push(new FlowPart(ambi_calls));
+      work.push(fun);
+      while( !work.isEmpty() ) {
+        Node n = work.pop();
+        if( n != fun && (n instanceof FunNode || n instanceof DefMemNode) ) continue;
+        if( n instanceof ParmNode && n.in(0) != fun ) continue; // Arg to other function
+        if( n instanceof RetNode  && n.in(4) != fun ) continue; // Return of other function
+        if( _owner.atX(n._uid) != null ) continue;
+        _owner.setX(n._uid,p);
+        if( n instanceof RetNode ) continue; // End of this function
+        if( n instanceof ProjNode && n.in(0) instanceof CallNode ) continue; // Wired call; all projs lead to other functions
+        work.addAll(n._uses);
+      }
+    }
+  }
+  private FlowPart owner( Node n ) {
+    FlowPart p = _owner==null ? null : _owner.atX(n._uid);
+    return p==null ? _parts.at(0) : p;
+  }
+  // Move flow work to its owning partition, for both directions
+  private void route() {
+    for( Node n; (n=_work_flow.pop()) != null; ) {
+      FlowPart p = owner(n);
+      add_work(p._val,n);
+      add_work(p._liv,n);
+    }
+  }
+  private void wire( CallEpiNode cepi ) {
+    if( _wires == null ) check_and_wire(cepi);
+    else synchronized( _wires ) { if( _wires.find(cepi) == -1 ) _wires.push(cepi); }
+  }
+
+  // A partition of the graph, flowed by the sparse solver.  Work for nodes
+  // owned by another partition goes on the flow worklist.  Only the owning
+  // thread touches the partition's own worklists.
+  private class FlowPart implements Callable<FlowPart> {
+    final Work _val = new Work("val",false) { @Override public Node apply(Node n) { throw AA.unimpl(); } };
+    final Work _liv = new Work("liv",false) { @Override public Node apply(Node n) { throw AA.unimpl(); } };
+    final Ary<CallNode> _ambi_calls;
+    long _vals, _lives;         // value() and live() calls, until counted
+    FlowPart( Ary<CallNode> ambi_calls ) { _ambi_calls = ambi_calls; }
+    boolean on( Node n ) { return _val.on(n) || _liv.on(n); }
+    boolean isEmpty() { return _val.isEmpty() && _liv.isEmpty(); }
+    Node val( Node n ) { return owner(n)==this ? own(_val,n) : add_flow(n); }
+    Node liv( Node n ) { return owner(n)==this ? own(_liv,n) : add_flow(n); }
+    private Node own( Work work, Node n ) { return n.is_dead() ? n : work.add(n); }
+    // Add this partition's calls to the GVN totals
+    void count() { _gcp_vals += _vals;  _gcp_lives += _lives;  _vals = _lives = 0; }
+
+    @Override public FlowPart call() {
+      do {
+        for( Node n; (n=next(true )) != null; ) value(n);
+        for( Node n; (n=next(false)) != null; ) live (n);
+      } while( !_val.isEmpty() );
+      return this;
+    }
+    private Node next( boolean fwd ) {
+      if( _owner==null ) route(); // Only partition, take the flow work now
+      return fwd ? _val.lowest() : _liv.highest();
+    }
+
+    private void value( Node n ) {
+      if( n.is_dead() ) return;
+      Type oval = n._val;
+      long t0 = OpStats.ON ? System.nanoTime() : 0;
+      Type nval = n.value(_opt_mode);
+      if( OpStats.ON ) OpStats.add(OpStats.VALUE,n._op,oval!=nval,t0);
+      _vals++;
+      if( oval != nval ) {
+        if( check_not_monotonic(n, oval, nval) ) return; // Debugging hook
+        n._val = nval;
+        for( Node use : n._uses ) {
+          val(use);
+          liv(use).add_flow_use_extra(n);
+        }
+        n.add_flow_extra(oval);
+        if( n instanceof CallEpiNode ) wire((CallEpiNode)n);
+        for( Node use : n._uses )
+          if( use instanceof CallEpiNode ) wire((CallEpiNode)use);
+        liv(n);
+        assert oval.may_be_con() || !nval.may_be_con(); // May_be_con is monotonic
+        if( oval.may_be_con() && !nval.may_be_con() )
+          for( Node def : n._defs )  // Now check liveness
+            if( def != null && def != n ) liv(def);
+      }
+      track_ambi(n,_ambi_calls);
+    }
+    private void live( Node n ) {
+      if( n.is_dead() ) return;
+      TypeMem oliv = n._live;
+      long t0 = OpStats.ON ? System.nanoTime() : 0;
+      TypeMem nliv = n.live(_opt_mode);
+      if( OpStats.ON ) OpStats.add(OpStats.LIVE,n._op,oliv!=nliv,t0);
+      _lives++;
+      if( oliv != nliv ) {
+        if( check_not_monotonic(n, oliv, nliv) ) return; // Debugging hook
+        n._live = nliv;
+        n.add_flow_extra(nliv);
+        for( Node def : n._defs )
+          if( def!=null ) liv(def).add_flow_def_extra(n);
+        val(n);
+      }
+      track_ambi(n,_ambi_calls);
+    }
+  }
+
+  // Track ambiguous calls: resolve after GCP gets stable, and if we can
+  // resolve we continue to let GCP fall.
+  private static void track_ambi( Node n, Ary<CallNode> ambi_calls ) {
+    if( n instanceof CallNode && n._live != TypeMem.DEAD ) {
+      CallNode call = (CallNode)n;
+      if( call.ctl()._val == Type.CTRL && call._val instanceof TypeTuple ) { // Wait until the Call is reachable
+        BitsFun fidxs = CallNode.ttfp(call._val).fidxs();
+        if( fidxs.above_center() && fidxs.abit() == -1 )
+          synchronized( ambi_calls ) { if( ambi_calls.find(call) == -1 ) ambi_calls.add(call); } // Shared by fork-join GCP
+      }
+    }
+  }
+
   private void remove_ambi( CallNode call ) {
     TypeFunPtr tfp = CallNode.ttfpx(call._val);
     FunPtrNode fptr = null;
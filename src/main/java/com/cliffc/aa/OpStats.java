@@ -0,0 +1,77 @@
+package com.cliffc.aa;
+
+import com.cliffc.aa.node.Node;
+import com.cliffc.aa.util.ConcurrentAutoTable;
+import com.cliffc.aa.util.SB;
+
+import java.util.Arrays;
+
+/**
+ * Optimizer instrumentation: invocations, successful rewrites and nanos for
+ * each kind of optimizer work, by Node opcode.  The kinds are the GVNGCM
+ * worklists (the ideal calls of iter) and GCP's value and live calls; a
+ * "rewrite" is a non-null result from the worklist, or a changed type.
+ *
+ * Off unless run with -Daa.opstats=true.  ON is a static final, so when off
+ * the JIT folds every check away and the hot paths pay nothing.  When on,
+ * Parse.go() prints a report (sorted by time) to System.err after every
+ * compile, and clears the counts.  Times are inclusive: an ideal call which
+ * runs a nested peephole iter also counts the nested calls' time.
+ */
+public final class OpStats {
+  public static final boolean ON = Boolean.getBoolean("aa.opstats");
+
+  // Worklist names, then the GCP flows
+  private static final String[] KINDS = new String[]{"dead","flow","reduce","mono","grow","inline","dom","value","live"};
+  public static final int VALUE = 7, LIVE = 8;
+
+  // Striped counters, indexed by [kind*OP_MAX+op]; only made when ON
+  private static final ConcurrentAutoTable[] CALLS = counters(), REWRITES = counters(), NANOS = counters();
+  private static ConcurrentAutoTable[] counters() {
+    ConcurrentAutoTable[] cs = new ConcurrentAutoTable[ON ? KINDS.length*Node.OP_MAX : 0];
+    for( int i=0; i<cs.length; i++ ) cs[i] = new ConcurrentAutoTable();
+    return cs;
+  }
+
+  public static int kind( String work ) {
+    for( int i=0; i<KINDS.length; i++ )
+      if( KINDS[i].equals(work) ) return i;
+    throw AA.unimpl(work);
+  }
+
+  // Record one call started at t0.  Callers test ON first.  Safe from many
+  // threads (fork-join GCP): each counter is a striped ConcurrentAutoTable.
+  public static void add( int kind, byte op, boolean rewrite, long t0 ) {
+    long ns = System.nanoTime()-t0;
+    int idx = kind*Node.OP_MAX+op;
+    CALLS[idx].increment();
+    if( rewrite ) REWRITES[idx].increment();
+    NANOS[idx].add(ns);
+  }
+
+  // Per-phase times and the non-zero counts, most time first; then clear
+  static String report( long[] phase_ns ) {
+    SB sb = new SB().p("Phase ms:");
+    for( int i=0; i<phase_ns.length; i++ )
+      sb.p(' ').p(Parse.PHASES[i]).p('=').p(String.format("%.3f",phase_ns[i]/1e6));
+    sb.nl();
+    Integer[] idxs = new Integer[CALLS.length];
+    for( int i=0; i<idxs.length; i++ ) idxs[i] = i;
+    long[] nanos = new long[CALLS.length];
+    for( int i=0; i<nanos.length; i++ ) nanos[i] = NANOS[i].get();
+    Arrays.sort(idxs,(x,y) -> Long.compare(nanos[y],nanos[x]));
+    sb.p(String.format("%-7s %-10s %9s %9s %10s",  "kind","op","calls","rewrites","ms")).nl();
+    for( int idx : idxs ) {
+      long calls = CALLS[idx].get();
+      if( calls==0 ) continue;
+      sb.p(String.format("%-7s %-10s %9d %9d %10.3f",
+                         KINDS[idx/Node.OP_MAX],Node.xstr(idx%Node.OP_MAX),calls,REWRITES[idx].get(),nanos[idx]/1e6)).nl();
+    }
+    clear();
+    return sb.toString();
+  }
+
+  public static void clear() {
+    for( int i=0; i<CALLS.length; i++ ) { CALLS[i].set(0); REWRITES[i].set(0); NANOS[i].set(0); }
+  }
+}
@@ -72,6 +72,7 @@ public class Parse implements Comparable<Parse> {
   private int _x;                       // Parser index
   private int _lastNWS;                 // Index of last non-white-space char
   private final AryInt _lines;          // char offset of each line
+  private final int _line0;             // Lines before this buffer, for error messages
   public final GVNGCM _gvn;             // Pessimistic types
 
   // Fields strictly for Java number parsing
@@ -79,7 +80,9 @@ public class Parse implements Comparable<Parse> {
   private final ParsePosition _pp;
   private final String _str;
 
-  Parse( String src, Env env, String str ) {
+  Parse( String src, Env env, String str ) { this(src,env,str,0); }
+  // Parse a chunk of a larger source, starting after line0 earlier lines.
+  Parse( String src, Env env, String str, int line0 ) {
     _src = src;
     _e   = env;
     _buf = str.getBytes();
@@ -92,6 +95,7 @@ public class Parse implements Comparable<Parse> {
     _str = str;           // Keep a complete string copy for java number parsing
     _lines = new AryInt();//
     _lines.push(0);       // Line 0 at offset 0
+    _line0 = line0;
     _gvn = Env.GVN;       // Pessimistic during parsing
   }
   String dump() { return scope().dump(99); }// debugging hook
@@ -102,21 +106,55 @@ public class Parse implements Comparable<Parse> {
   // and nothing survives since there is no next call.  Used by the Exec to do
   // whole-compilation-unit typing.
   TypeEnv go( ) {
+    long[] ph0 = OpStats.ON ? PHASE_NS.clone() : null;
+    long t = System.nanoTime();
     prog();                     // Parse a program
     // Delete names at the top scope before starting optimization.
     _e._scope.keep();
     _e.close_display(_gvn);
+    t = phase(0,t);
     _gvn.iter(GVNGCM.Mode.PesiNoCG); // Pessimistic optimizations; might improve error situation
+    t = phase(1,t);
     remove_unknown_callers();
     _gvn.gcp (GVNGCM.Mode.Opto,scope()); // Global Constant Propagation
+    t = phase(2,t);
     _gvn.iter(GVNGCM.Mode.PesiCG); // Re-check all ideal calls now that types have been maximally lifted
+    t = phase(3,t);
     _gvn.gcp (GVNGCM.Mode.Opto,scope()); // Global Constant Propagation
+    t = phase(4,t);
     _gvn.iter(GVNGCM.Mode.PesiCG); // Re-check all ideal calls now that types have been maximally lifted
+    phase(5,t);
+    if( OpStats.ON ) {
+      for( int i=0; i<ph0.length; i++ ) ph0[i] = PHASE_NS[i]-ph0[i];
+      System.err.print(OpStats.report(ph0));
+    }
     _e._scope.unkeep();
     //assert Type.intern_check();
     return gather_errors();
   }
 
+  // Wall-clock nanos spent in each phase of go(), summed over all calls.
+  // Always on; a handful of nanoTime calls per compile.  Read (and cleared)
+  // by the benchmarks.
+  public static final String[] PHASES = new String[]{"parse","iter_nocg","gcp1","iter_cg1","gcp2","iter_cg2"};
+  public static final long[] PHASE_NS = new long[PHASES.length];
+  private static long phase( int p, long t0 ) {
+    long t1 = System.nanoTime();
+    PHASE_NS[p] += t1-t0;
+    return t1;
+  }
+
+  // Parse more code into an already open file-scope, as for the REPL.
+  // Unlike go(), more code may follow: the display stays open and unknown
+  // callers remain, so there is no GCP; only the pessimistic iter runs, and it
+  // only visits what the new code put on the worklists.  The returned TypeEnv
+  // must NOT be closed, as the Env lives on for the next chunk.
+  TypeEnv go_partial( ) {
+    prog();                     // Parse a chunk
+    _gvn.iter(GVNGCM.Mode.Parse); // Pessimistic optimizations, still parsing
+    return gather_errors();
+  }
+
   private void remove_unknown_callers() {
     Ary<Node> uses = Env.ALL_CTRL._uses;
     /*
@@ -1451,6 +1489,7 @@ public class Parse implements Comparable<Parse> {
     _buf  = P._buf;
     _x    = P._x;
     _lines= P._lines;
+    _line0= P._line0;
     _gvn  = P._gvn;
     _lastNWS = P._lastNWS;
     _e    = null;  _nf  = null;  _pp  = null;  _str = null;
@@ -1482,7 +1521,7 @@ public class Parse implements Comparable<Parse> {
     int line = _lines.binary_search(_x); // Find zero-based line insertion point
     if( line == _lines._len ||  _lines.at(line)>_x ) line--;
     // error message using 1-based line
-    SB sb = new SB().p(_src).p(':').p(line+1).p(':').p(s).nl();
+    SB sb = new SB().p(_src).p(':').p(_line0+line+1).p(':').p(s).nl();
     sb.p(new String(_buf,a,b-a)).nl();
     int line_start = a;
     for( int i=line_start; i<_x; i++ )
@@ -11,12 +11,11 @@ import java.util.Scanner;
 public abstract class REPL {
   public static final String prompt="> ";
   public static String go( ) {
-    String prog = "";
-    init();
+    init_inc();
     Scanner stdin = new Scanner(System.in);
     while( stdin.hasNextLine() )
-      prog = go_one(prog,stdin.nextLine());
-    return prog;
+      go_inc(stdin.nextLine());
+    return PROG;
   }
 
   static void init() {
@@ -27,18 +26,64 @@ public abstract class REPL {
   static String go_one( String prog, String line ) {
     String prog2 = prog+line+";"+System.lineSeparator();
     TypeEnv te = Exec.go(Env.file_scope(Env.top_scope()),"stdin",prog2);
-    if( te._errs == null ) {
-      Type t = te._t;
-      if( t instanceof TypeMemPtr )
-        t = te._tmem.ld((TypeMemPtr)t); // Peek thru pointer
-      SB sb = t.str(new SB(),new VBitSet(),te._tmem,false); // Print what we see, with memory
-      System.out.println( sb.toString() );
-      prog = prog2;
-    } else
-      System.out.print( te._errs.get(0) );
+    if( print(te) ) prog = prog2;
     System.out.print(prompt);
     System.out.flush();
     return prog;
   }
 
+  // Incremental REPL.  The file-scope Env stays open across lines, and each
+  // line is parsed on its own against it, so the work per line does not grow
+  // with the session.  Since more lines may follow there is no GCP, and
+  // pessimistic types can be too weak, e.g. the args to a not-yet-inlined
+  // recursive function are just Scalar.  When the incremental parse reports
+  // errors (or gives up with 'all') the line falls back to a whole-program
+  // compile of all accepted lines, which is exact and makes the same error
+  // messages as go_one.  That compile resets the global state, so the open
+  // Env is rebuilt from the accepted lines on the next call.
+  private static Env ENV;       // Open file-scope, or null if needs rebuild
+  private static String PROG;   // Accepted lines
+  private static int LINES;     // Accepted line count, for error messages
+
+  static void init_inc() {
+    PROG = "";
+    LINES = 0;
+    ENV = null;
+    init();
+  }
+
+  static void go_inc( String line ) {
+    String line2 = line+";"+System.lineSeparator();
+    if( ENV == null ) {         // Rebuild the open Env from the accepted lines
+      ENV = Env.file_scope(Env.top_scope());
+      if( !PROG.isEmpty() ) new Parse("stdin",ENV,PROG).go_partial();
+    }
+    TypeEnv te = new Parse("stdin",ENV,line2,LINES).go_partial();
+    if( te._errs != null || te._t == Type.ALL ) {
+      ENV = null;               // Whole-program compile resets all global state
+      te = Exec.go(Env.file_scope(Env.top_scope()),"stdin",PROG+line2);
+    }
+    if( print(te) ) {
+      PROG += line2;
+      for( int i=0; i<line2.length(); i++ )
+        if( line2.charAt(i)=='\n' ) LINES++;
+    }
+    System.out.print(prompt);
+    System.out.flush();
+  }
+
+  // Print the result or the first error; true if no errors
+  private static boolean print( TypeEnv te ) {
+    if( te._errs != null ) {
+      System.out.print( te._errs.get(0) );
+      return false;
+    }
+    Type t = te._t;
+    if( t instanceof TypeMemPtr )
+      t = te._tmem.ld((TypeMemPtr)t); // Peek thru pointer
+    SB sb = t.str(new SB(),new VBitSet(),te._tmem,false); // Print what we see, with memory
+    System.out.println( sb.toString() );
+    return true;
+  }
+
 }
@@ -0,0 +1,130 @@
+package com.cliffc.aa;
+
+import com.cliffc.aa.tvar.UQNodes;
+import com.cliffc.aa.util.Ary;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A frozen copy of the primitive-loaded top scope.  Recorded once, after the
+ * first Env.top_scope() has built and optimized the primitives; later calls
+ * restore it instead of rebuilding START, the constants and every primitive
+ * wrapper.
+ *
+ * Recording walks the mutable graph reachable from the roots.  Objects from
+ * the node and tvar packages (Nodes, TV2s and their helpers) have all their
+ * non-final fields saved; arrays, Arys and Maps have their contents saved.
+ * Everything else (Types, Bits, Strings, Parse, interned UQNodes) is
+ * immutable and kept by reference.  Restoring writes the saved state back in
+ * place, so object identity is preserved and references held elsewhere
+ * (e.g. PrimNode.PRECEDENCE, Env.START) stay valid.  Objects made after the
+ * recording are simply dropped, as they are no longer reachable from the prims.
+ */
+final class TopSnapshot {
+  // Per-class {all instance fields, non-final instance fields}
+  private static final HashMap<Class<?>,Field[][]> FIELDS = new HashMap<>();
+
+  private final Ary<Object > _objs = new Ary<>(Object .class); // Recorded objects
+  private final Ary<Field[]> _flds = new Ary<>(Field[].class); // Restored fields, or null for arrays & maps
+  private final Ary<Object > _vals = new Ary<>(Object .class); // Saved field values, array copy, or map key/value pairs
+
+  TopSnapshot( Object... roots ) {
+    IdentityHashMap<Object,Object> visit = new IdentityHashMap<>();
+    Ary<Object> work = new Ary<>(Object.class);
+    for( Object root : roots ) push(visit,work,root);
+    while( !work.isEmpty() ) {
+      Object o = work.pop();
+      Class<?> clz = o.getClass();
+      if( clz.isArray() ) {
+        int len = Array.getLength(o);
+        Object copy = Array.newInstance(clz.getComponentType(),len);
+        System.arraycopy(o,0,copy,0,len);
+        if( o instanceof Object[] )
+          for( Object x : (Object[])o ) push(visit,work,x);
+        record(o,null,copy);
+      } else if( o instanceof Map ) {
+        Ary<Object> kvs = new Ary<>(Object.class);
+        for( Map.Entry<?,?> e : ((Map<?,?>)o).entrySet() ) {
+          kvs.push(e.getKey  ());  push(visit,work,e.getKey  ());
+          kvs.push(e.getValue());  push(visit,work,e.getValue());
+        }
+        record(o,null,kvs.asAry());
+      } else {
+        Field[][] fs = fields(clz);
+        for( Field f : fs[0] ) push(visit,work,get(f,o));
+        Object[] vals = new Object[fs[1].length];
+        for( int i=0; i<vals.length; i++ ) vals[i] = get(fs[1][i],o);
+        record(o,fs[1],vals);
+      }
+    }
+  }
+  private void record( Object o, Field[] flds, Object vals ) { _objs.push(o); _flds.push(flds); _vals.push(vals); }
+
+  int size() { return _objs._len; }
+
+  // Put every recorded object back as it was.  Fields and arrays first, so
+  // any keys hashed by the map restores see their recorded state.
+  @SuppressWarnings("unchecked")
+  void restore() {
+    for( int i=0; i<_objs._len; i++ ) {
+      Object o = _objs._es[i], vals = _vals._es[i];
+      Field[] flds = _flds._es[i];
+      if( flds != null ) {
+        Object[] vs = (Object[])vals;
+        for( int j=0; j<flds.length; j++ ) set(flds[j],o,vs[j]);
+      } else if( !(o instanceof Map) )
+        System.arraycopy(vals,0,o,0,Array.getLength(vals));
+    }
+    for( int i=0; i<_objs._len; i++ )
+      if( _objs._es[i] instanceof Map ) {
+        Map<Object,Object> map = (Map<Object,Object>)_objs._es[i];
+        Object[] kvs = (Object[])_vals._es[i];
+        map.clear();
+        for( int j=0; j<kvs.length; j+=2 ) map.put(kvs[j],kvs[j+1]);
+      }
+  }
+
+  private static void push( IdentityHashMap<Object,Object> visit, Ary<Object> work, Object o ) {
+    if( o != null && is_mutable(o.getClass()) && visit.put(o,o)==null )
+      work.push(o);
+  }
+
+  // Mutable graph state: nodes, type-variables, and their arrays and maps.
+  private static boolean is_mutable( Class<?> clz ) {
+    if( clz.isArray() ) return true;
+    if( clz == UQNodes.class ) return false; // Interned, immutable
+    if( clz == Ary.class || Map.class.isAssignableFrom(clz) ) return true;
+    if( clz.isEnum() || clz.isSynthetic() ) return false;
+    String name = clz.getName();
+    return name.startsWith("com.cliffc.aa.node.") || name.startsWith("com.cliffc.aa.tvar.");
+  }
+
+  // All instance fields declared in this package tree, and the non-final subset
+  private static Field[][] fields( Class<?> clz ) {
+    Field[][] fs = FIELDS.get(clz);
+    if( fs != null ) return fs;
+    Ary<Field> all = new Ary<>(Field.class), mut = new Ary<>(Field.class);
+    for( Class<?> c = clz; c != null && c.getName().startsWith("com.cliffc.aa."); c = c.getSuperclass() )
+      for( Field f : c.getDeclaredFields() ) {
+        int mod = f.getModifiers();
+        if( Modifier.isStatic(mod) ) continue;
+        f.setAccessible(true);
+        all.push(f);
+        if( !Modifier.isFinal(mod) ) mut.push(f);
+      }
+    FIELDS.put(clz,fs = new Field[][]{all.asAry(),mut.asAry()});
+    return fs;
+  }
+
+  private static Object get( Field f, Object o ) {
+    try { return f.get(o); } catch( IllegalAccessException e ) { throw new RuntimeException(e); }
+  }
+  private static void set( Field f, Object o, Object v ) {
+    try { f.set(o,v); } catch( IllegalAccessException e ) { throw new RuntimeException(e); }
+  }
+}
@@ -22,6 +22,9 @@ public class CEProjNode extends CProjNode {
     TypeTuple ttcall = (TypeTuple)tcall; // Call type tuple
     if( ttcall.at(0)!=Type.CTRL ) return false; // Call not executing
     if( ftun instanceof ThunkNode ) return true; // Thunk call is OK by design
+    // A single-caller Fun collapsed into this CEProj, which is now plain
+    // control until the CallEpi folds up.
+    if( !(ftun instanceof FunNode) ) return true;
     FunNode fun = (FunNode)ftun;
     if( fun._thunk_rhs ) return true; // Thunk call is OK by design
     TypeFunPtr tfp = CallNode.ttfp(ttcall);
@@ -542,7 +542,7 @@ public class CallNode extends Node {
       if( !opt_mode._CG ) return TypeMem.ESCAPE; // Prior to GCP, assume all fptrs are alive and display escapes
       // During GCP, unresolved calls might resolve & remove this use.  Keep dead till resolve fails.
       // If we have a fidx directly, use it more precisely.
-      int dfidx = def instanceof FunPtrNode ? ((FunPtrNode)def).ret()._fidx : -1;
+      int dfidx = def instanceof FunPtrNode && ((FunPtrNode)def).ret()!=null ? ((FunPtrNode)def).ret()._fidx : -1;
       return live_use_call(dfidx);
     }
     if( def==ctl() ) return TypeMem.ALIVE;
@@ -638,7 +638,7 @@ public class CallNode extends Node {
           continue;
 
         FunNode fun = FunNode.find_fidx(kidx);
-        if( fun.nargs()!=nargs() || fun.in(0)==fun ) continue; // BAD/dead
+        if( fun.is_dead() || fun.nargs()!=nargs() || fun.in(0)==fun ) continue; // BAD/dead
         TypeTuple formals = fun._sig._formals; // Type of each argument
         int cvts=0;                        // Arg conversion cost
         for( int j=DSP_IDX; j<nargs(); j++ ) {
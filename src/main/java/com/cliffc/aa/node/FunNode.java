@@ -71,8 +71,9 @@ public class FunNode extends RegionNode {
   // Hindly-Milner non-generative set, used during cloning
   private TV2[] _nongens;
 
-  private byte _cnt_size_inlines; // Count of size-based inlines; prevents infinite unrolling via inlining
+  private int _cnt_size_inlines; // Count of size-based inlines; prevents infinite unrolling via inlining
   public static int _must_inline; // Used for asserts
+  public static InlinePolicy INLINE = new InlinePolicy(); // When and what to inline; see split_size
 
   // Used to make the primitives at boot time.  Note the empty displays: in
   // theory Primitives should get the top-level primitives-display, but in
@@ -90,19 +91,55 @@ public class FunNode extends RegionNode {
     super(OP_FUN);
     _name = name;
     _fidx = fidx;
-    _sig = sig;
     _op_prec = (byte)op_prec;
     _thunk_rhs = thunk_rhs;
     FUNS.setX(fidx(),this); // Track FunNode by fidx; assert single-bit fidxs
+    set_sig(sig);
     keep();                 // Always keep, until RetNode is constructed
   }
 
   // Find FunNodes by fidx
   static Ary<FunNode> FUNS = new Ary<>(new FunNode[]{null,});
-  public static void reset() { FUNS.clear(); _must_inline=0; }
+  private static FunNode[] FUNS0; // FUNS after loading primitives
+  public static void init0() { FUNS0 = FUNS.asAry(); }
+  public static void reset() {
+    FUNS.clear(); FUNS.addAll(FUNS0); _must_inline=0;
+    INLINE.reset();
+    SPECS.clear();
+    for( FunNode fun : FUNS0 ) if( fun != null ) fun.set_sig(fun._sig);
+  }
   public static FunNode find_fidx( int fidx ) { return FUNS.atX(fidx); }
   int fidx() { return _fidx; }
 
+  // Type-specializations by signature, so ideal_inline finds a prior split
+  // without scanning FUNS.  Keyed by the interned formals and return; a
+  // FunNode is added whenever its _sig changes.  Entries for dead or
+  // untracked FunNodes, or whose _sig has since moved on, are dropped when
+  // their bucket is next looked at.
+  private static final NonBlockingHashMapLong<Ary<FunNode>> SPECS = new NonBlockingHashMapLong<>();
+  private static long spec_key( TypeTuple formals, TypeTuple ret ) { return ((long)formals._uid<<32) | (ret._uid&0xFFFFFFFFL); }
+  private void set_sig( TypeFunSig sig ) {
+    _sig = sig;
+    long key = spec_key(sig._formals,sig._ret);
+    Ary<FunNode> funs = SPECS.get(key);
+    if( funs==null ) SPECS.put(key,funs = new Ary<>(new FunNode[1],0));
+    if( funs.find(this)==-1 ) funs.push(this);
+  }
+  // A live specialization with these formals, this return, and the same
+  // unknown-callers input; or null.
+  private FunNode find_spec( TypeTuple formals ) {
+    Ary<FunNode> funs = SPECS.get(spec_key(formals,_sig._ret));
+    if( funs==null ) return null;
+    FunNode spec=null;
+    for( int i=0; i<funs._len; i++ ) {
+      FunNode fun = funs.at(i);
+      if( fun.is_dead() || FUNS.atX(fun._fidx)!=fun || fun._sig._formals!=formals || fun._sig._ret!=_sig._ret )
+        funs.del(i--);          // Stale
+      else if( fun.in(1)==in(1) ) spec = fun;
+    }
+    return spec;
+  }
+
   // Short self name
   @Override public String xstr() { return name(); }
   // Inline longer info
@@ -216,7 +253,7 @@ public class FunNode extends RegionNode {
       TypeFunSig progress = _sig;
       for( int i=1; i<parms.length; i++ )
         if( (parms[i]==null || parms[i]._live==TypeMem.DEAD) && _sig._formals.at(i)!=Type.ALL )
-          _sig = _sig.make_from_arg(i,Type.ALL);
+          set_sig(_sig.make_from_arg(i,Type.ALL));
       // Can resolve some least_cost choices
       if( progress != _sig ) {
         FunPtrNode fptr = fptr();
@@ -267,25 +304,28 @@ public class FunNode extends RegionNode {
     int path = -1;              // Paths will split according to type
     if( formals == null ) {     // No type-specialization to do
       formals = _sig._formals;  // Use old args
-      if( _cnt_size_inlines >= 10 && !is_prim() ) return null;
+      if( _cnt_size_inlines >= INLINE._max_size_inlines && !is_prim() ) return no_inline(InlinePolicy.Decision.CAPPED,check_progress);
       // Large code-expansion allowed; can inline for other reasons
-      path = _thunk_rhs ? 2 : split_size(body,parms); // Forcible size-splitting first path
+      path = _thunk_rhs ? 2 : split_size(body,parms,check_progress); // Forcible size-splitting first path
       if( path == -1 ) return null;
       assert CallNode.ttfp(in(path).val(0)).fidx()!=-1; // called by a single-target call
+      if( !is_prim() && !INLINE.affordable(body._len) )
+        return no_inline(InlinePolicy.Decision.OVER_BUDGET,check_progress);
       if( !is_prim() ) _cnt_size_inlines++; // Disallow infinite size-inlining of recursive non-primitives
     }
 
     // Check for dups (already done this but failed to resolve all calls, so trying again).
-    TypeTuple fformals = formals;
-    if( path == -1 && FUNS.find(fun -> fun != null && !fun.is_dead() &&
-                                fun._sig._formals==fformals && fun._sig._ret == _sig._ret &&
-                                fun.in(1)==in(1)) != -1 )
-      return null;              // Done this before
+    if( path == -1 && find_spec(formals) != null )
+      return no_inline(InlinePolicy.Decision.DUPLICATE,check_progress); // Done this before
     if( noinline() ) return null;
+    if( path == -1 && !is_prim() && !INLINE.affordable(body._len) )
+      return no_inline(InlinePolicy.Decision.OVER_BUDGET,check_progress);
 
     assert _must_inline==0; // Failed to inline a prior inline?
     if( path > 0 ) _must_inline = in(path).in(0)._uid;
     assert !check_progress;     // Not expecting progress
+    if( !is_prim() ) INLINE.spend(body._len);
+    INLINE.note(path == -1 ? InlinePolicy.Decision.TYPE_SPLIT : InlinePolicy.Decision.SIZE_INLINED);
 
     // --------------
     // Split the callers according to the new 'fun'.
@@ -528,6 +568,13 @@ public class FunNode extends RegionNode {
     return body;
   }
 
+  // Count an inlining decision, then fail the inline.  Asserts re-asking
+  // (check_progress) are not decisions.
+  private Node no_inline( InlinePolicy.Decision d, boolean check_progress ) {
+    if( !check_progress ) INLINE.note(d);
+    return null;
+  }
+
   // Split a single-use copy (e.g. fully inline) if the function is "small
   // enough".  Include anything with just a handful of primitives, or a single
   // call, possible with a single if.  Disallow functions returning a new
@@ -535,8 +582,8 @@ public class FunNode extends RegionNode {
   // prevents lifting the allocations from the default parent to either child
   // without a full GCP pass - which means we split_size but then cannot inline
   // in CEPI because the Ret memory type will never lift to the default memory.
-  private int split_size( Ary<Node> body, Node[] parms ) {
-    if( _defs._len <= 1 ) return -1; // No need to split callers if only 2
+  private int split_size( Ary<Node> body, Node[] parms, boolean check_progress ) {
+    if( _defs._len <= 1 ) { no_inline(InlinePolicy.Decision.NO_PATH,check_progress); return -1; } // No need to split callers if only 2
     boolean self_recursive=false;
 
     // Count function body size.  Requires walking the function body and
@@ -548,7 +595,7 @@ public class FunNode extends RegionNode {
       int op = n._op;           // opcode
       if( op == OP_CALL ) {     // Call-of-primitive?
         Node n1 = ((CallNode)n).fdx();
-        if( !(n1._val instanceof TypeFunPtr) ) return -1; // Calling an unknown function, await GCP
+        if( !(n1._val instanceof TypeFunPtr) ) { no_inline(InlinePolicy.Decision.UNKNOWN_CALLEE,check_progress); return -1; } // Calling an unknown function, await GCP
         TypeFunPtr tfp = (TypeFunPtr)n1._val;
         if( tfp._fidxs.test(_fidx) ) self_recursive = true; // May be self-recursive
         Node n2 = n1 instanceof UnOrFunPtrNode ? ((UnOrFunPtrNode)n1).funptr() : n1;
@@ -570,21 +617,16 @@ public class FunNode extends RegionNode {
     // Specifically ignoring constants, parms, phis, rpcs, types,
     // unresolved, and casts.  These all track & control values, but actually
     // do not generate any code.
-    if( cnts[OP_CALL] > 2 || // Careful inlining more calls; leads to exponential growth
-        cnts[OP_LOAD] > 4 ||
-        cnts[OP_STORE]> 2 ||
-        cnts[OP_PRIM] > 6 ||   // Allow small-ish primitive counts to inline
-        cnts[OP_NEWOBJ]>2 ||   // Display and return is OK
-        (cnts[OP_NEWOBJ]>1 && self_recursive) ||
-        call_indirect > 0 )
-      return -1;
-
-    if( !Env.GVN._opt_mode._CG && self_recursive ) return -1; // Await GCP & call-graph discovery before inlining self-recursive functions
-
-    // Pick which input to inline.  Only based on having some constant inputs
-    // right now.
+    if( call_indirect > 0 || INLINE.too_big(cnts,self_recursive) )
+      { no_inline(InlinePolicy.Decision.TOO_BIG,check_progress); return -1; }
+
+    if( !Env.GVN._opt_mode._CG && self_recursive ) // Await GCP & call-graph discovery before inlining self-recursive functions
+      { no_inline(InlinePolicy.Decision.AWAIT_CG,check_progress); return -1; }
+
+    // Pick which input to inline, by the policy's score; by default the
+    // count of constant inputs.
     Node mem = parms[MEM_IDX];  // Memory, used to sharpen input ptrs
-    int m=-1, mncons = -1;
+    int m=-1, mscore = -1;
     for( int i=has_unknown_callers() ? 2 : 1; i<_defs._len; i++ ) {
       Node call = in(i).in(0);
       if( !(call instanceof CallNode) ) continue; // Not well formed
@@ -606,14 +648,16 @@ public class FunNode extends RegionNode {
           if( actual.is_con() ) ncon++; // Count constants along each path
         }
       }
-      if( ncon > mncons )
-        { mncons = ncon; m = i; } // Path with the most constants
+      if( ncon < 0 ) continue;
+      int score = INLINE.score(ncon,call_thunk,self_recursive);
+      if( score > mscore )
+        { mscore = score; m = i; } // Best scoring path
     }
     if( m == -1 )               // No paths are not in-error? (All paths have an error-parm)
-      return -1;                // No inline
+      { no_inline(InlinePolicy.Decision.NO_PATH,check_progress); return -1; } // No inline
 
-    if( cnts[OP_IF] > 1+mncons) // Allow some trivial filtering to inline
-      return -1;
+    if( !INLINE.profitable(cnts,mscore) )
+      { no_inline(InlinePolicy.Decision.UNPROFITABLE,check_progress); return -1; }
 
     return m;                   // Return path to split on
   }
@@ -916,6 +960,7 @@ public class FunNode extends RegionNode {
     return null;
   }
 
+  @Override public int hashCode() { return super.hashCode()+_uid; } // Only equal to self; _fidx and _name change
   @Override public boolean equals(Object o) { return this==o; } // Only one
   @Override public Node is_copy(int idx) { return in(0)==this ? in(1) : null; } 
   void set_is_copy() { set_def(0,this); Env.GVN.add_reduce_uses(this); }
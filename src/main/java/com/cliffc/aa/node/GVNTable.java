@@ -0,0 +1,174 @@
+package com.cliffc.aa.node;
+
+import com.cliffc.aa.util.SB;
+import com.cliffc.aa.util.VBitSet;
+
+import java.util.Arrays;
+
+/**
+ * Global Value Numbering table: Nodes keyed by their own hashCode and equals,
+ * so a Node finds any prior equivalent Node.
+ *
+ * Open addressing with linear probing over a few lock-striped sub-tables; a
+ * Node's hash picks the stripe, then the slot.  Deletes shift later entries
+ * in the probe run back, so there are no tombstones and a probe stops at the
+ * first empty slot.  The Node's hash is scrambled before use, as Node hashes
+ * are sums of small uids and cluster badly.  Each stripe keeps the uids of
+ * its Nodes in a bitset, so membership by identity is a bit test.
+ *
+ * One table per compilation (the compiler state is per CompileContext).
+ * Every operation takes the one stripe monitor it needs, and nothing else;
+ * only the whole-table calls (size, clear, keys, stats, and a contains miss)
+ * visit the stripes in turn.  Collision and probe-length stats are kept per
+ * stripe.
+ */
+public class GVNTable {
+  private static final int NSTRIPES = 16; // Power of 2
+  private final Stripe[] _stripes = new Stripe[NSTRIPES];
+  public GVNTable() { for( int i=0; i<NSTRIPES; i++ ) _stripes[i] = new Stripe(); }
+
+  // MurmurHash3 finalizer
+  private static int scramble( int h ) {
+    h ^= h>>>16;  h *= 0x85ebca6b;
+    h ^= h>>>13;  h *= 0xc2b2ae35;
+    return h ^ (h>>>16);
+  }
+  private Stripe stripe( int h ) { return _stripes[h & (NSTRIPES-1)]; }
+
+  // A prior Node equal to n, or null
+  public Node get( Node n ) {
+    int h = scramble(n.hashCode());
+    Stripe s = stripe(h);
+    synchronized( s ) { return s.get(n,h); }
+  }
+  // Put n, if no equal Node is in the table.  Returns the prior Node, or null
+  // if n went in.
+  public Node put_if_absent( Node n ) {
+    int h = scramble(n.hashCode());
+    Stripe s = stripe(h);
+    synchronized( s ) {
+      Node x = s.get(n,h);
+      if( x != null ) return x;
+      s.put(n,h);
+      return null;
+    }
+  }
+  // Remove n itself (not some other equal Node), using n's current hash.
+  // Returns n, or null if not found.
+  public Node remove( Node n ) {
+    int h = scramble(n.hashCode());
+    Stripe s = stripe(h);
+    synchronized( s ) {
+      return s.remove(n,h) ? n : null;
+    }
+  }
+  // True if n itself is in the table; by uid, so even if n's hash changed.
+  // The stripe for n's current hash first, as the hash rarely changes.
+  public boolean contains( Node n ) {
+    Stripe s0 = stripe(scramble(n.hashCode()));
+    synchronized( s0 ) { if( s0._uids.get(n._uid) ) return true; }
+    for( Stripe s : _stripes )
+      if( s != s0 ) synchronized( s ) { if( s._uids.get(n._uid) ) return true; }
+    return false;
+  }
+
+  public int size() {
+    int sz=0;
+    for( Stripe s : _stripes ) synchronized( s ) { sz += s._cnt; }
+    return sz;
+  }
+  public void clear() {
+    for( Stripe s : _stripes ) synchronized( s ) { s.clear(); }
+  }
+  public Node[] keys() {
+    Node[] ns = new Node[0];
+    int len=0;
+    for( Stripe s : _stripes )
+      synchronized( s ) {
+        ns = Arrays.copyOf(ns,len+s._cnt);
+        for( Node n : s._keys ) if( n != null ) ns[len++] = n;
+      }
+    return ns;
+  }
+
+  // Stats: lookups, mean and max probe length, and puts landing on an
+  // occupied home slot.
+  public String stats() {
+    long gets=0, probes=0, puts=0, colls=0;
+    int max=0, sz=0, cap=0;
+    for( Stripe s : _stripes )
+      synchronized( s ) {
+        gets += s._gets;  probes += s._probes;  max = Math.max(max,s._max);
+        puts += s._puts;  colls  += s._colls;
+        sz   += s._cnt;   cap    += s._keys.length;
+      }
+    return new SB().p("gvn table ").p(sz).p('/').p(cap)
+      .p(String.format(", lookups %d, probes/lookup %.2f, max probe %d, puts %d, collisions %d (%.1f%%)",
+                       gets,gets==0 ? 0.0 : (double)probes/gets,max,puts,colls,puts==0 ? 0.0 : 100.0*colls/puts))
+      .toString();
+  }
+
+  // One open-addressed sub-table.  Hashes are kept beside the keys, so a probe
+  // compares ints before calling equals.  Callers hold the stripe lock.
+  private static final class Stripe {
+    Node[] _keys = new Node[16];
+    int [] _hashes = new int[16];
+    final VBitSet _uids = new VBitSet(); // Nodes in this stripe, by uid
+    int _cnt;
+    long _gets, _probes, _puts, _colls; // Stats
+    int _max;
+    private int home( int h ) { return (h>>>4) & (_keys.length-1); } // Low bits picked the stripe
+
+    Node get( Node n, int h ) {
+      int mask = _keys.length-1, i = home(h), len = 1;
+      Node x;
+      while( (x=_keys[i]) != null && (_hashes[i]!=h || !(x==n || x.equals(n))) ) { i = (i+1)&mask; len++; }
+      _gets++;  _probes += len;
+      if( len > _max ) _max = len;
+      return x;
+    }
+    void put( Node n, int h ) {
+      if( (_cnt+1)<<1 > _keys.length ) grow(); // Keep at most half full
+      int mask = _keys.length-1, i = home(h);
+      _puts++;
+      if( _keys[i] != null ) _colls++;
+      while( _keys[i] != null ) i = (i+1)&mask;
+      _keys[i] = n;  _hashes[i] = h;  _cnt++;
+      _uids.set(n._uid);
+    }
+    boolean remove( Node n, int h ) {
+      int mask = _keys.length-1, i = home(h);
+      Node x;
+      while( (x=_keys[i]) != n ) {
+        if( x == null ) return false;
+        i = (i+1)&mask;
+      }
+      // Shift later entries of the run back into the hole, unless they sit
+      // at or after their home slot past the hole already.
+      for( int j = (i+1)&mask; _keys[j] != null; j = (j+1)&mask ) {
+        int k = home(_hashes[j]);
+        if( i<=j ? (i<k && k<=j) : (i<k || k<=j) ) continue; // Home is between the hole and j
+        _keys[i] = _keys[j];  _hashes[i] = _hashes[j];
+        i = j;
+      }
+      _keys[i] = null;
+      _cnt--;
+      _uids.clear(n._uid);
+      return true;
+    }
+    void clear() { Arrays.fill(_keys,null); _uids.clear(); _cnt=0; }
+    private void grow() {
+      Node[] keys = _keys;
+      int[] hashes = _hashes;
+      _keys = new Node[keys.length<<1];
+      _hashes = new int[keys.length<<1];
+      int mask = _keys.length-1;
+      for( int j=0; j<keys.length; j++ )
+        if( keys[j] != null ) {
+          int i = home(hashes[j]);
+          while( _keys[i] != null ) i = (i+1)&mask;
+          _keys[i] = keys[j];  _hashes[i] = hashes[j];
+        }
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.cliffc.aa.node;
+
+import com.cliffc.aa.util.SB;
+
+import java.util.Arrays;
+
+import static com.cliffc.aa.node.Node.*;
+
+/**
+ * Inlining policy for FunNode.ideal_inline: when a function body is small
+ * enough to split out a caller path (size-inlining), which path to split, and
+ * how much code all splits of one compilation may clone.
+ *
+ * The defaults are the fixed limits split_size always had, with no budget.
+ * Tune by setting fields on FunNode.INLINE, or plug in a subclass overriding
+ * too_big, score or profitable.  The policy sees the body as a histogram of
+ * opcodes; constants, parms, phis, casts and the like make no code and are
+ * not limited.
+ *
+ * Decisions are counted by kind until clear(); report() prints them.  The
+ * budget is per compilation, and is refilled by reset().
+ */
+public class InlinePolicy {
+  // Largest body to size-inline, by opcode count
+  public int _max_calls  = 2;   // Careful inlining more calls; leads to exponential growth
+  public int _max_loads  = 4;
+  public int _max_stores = 2;
+  public int _max_prims  = 6;   // Allow small-ish primitive counts to inline
+  public int _max_newobjs= 2;   // Display and return is OK
+  // IFs allowed in the body: _if_slack plus _ifs_per_score for each point of
+  // the split path's score.  Allows some trivial filtering to inline.
+  public int _if_slack = 1, _ifs_per_score = 1;
+  // Size-inlines of any one non-primitive function; caps unrolling of
+  // recursive functions by inlining.
+  public int _max_size_inlines = 10;
+  // Body Nodes cloned by all non-primitive splits of one compilation, both
+  // size-inlines and type-specializations.
+  public int _budget = Integer.MAX_VALUE;
+  private int _spent;
+
+  // Outcomes of an ideal_inline attempt which reached the split decision
+  public enum Decision {
+    SIZE_INLINED,               // Split a caller path out by size
+    TYPE_SPLIT,                 // Split callers by argument types
+    DUPLICATE,                  // Type-specialization already made
+    CAPPED,                     // Function hit _max_size_inlines
+    UNKNOWN_CALLEE,             // Body calls an unknown function; await GCP
+    TOO_BIG,                    // Body over some limit
+    AWAIT_CG,                   // Self-recursive; await call-graph discovery
+    NO_PATH,                    // No caller path can be split
+    UNPROFITABLE,               // Best path scored too low for the body
+    OVER_BUDGET,                // Would exceed the compilation budget
+  }
+  private final long[] _decisions = new long[Decision.values().length];
+
+  // True if the body is too big to size-inline.  cnts is the body histogram
+  // by opcode, with calls to primitives counted as OP_PRIM.
+  public boolean too_big( int[] cnts, boolean self_recursive ) {
+    return cnts[OP_CALL] > _max_calls ||
+      cnts[OP_LOAD  ] > _max_loads ||
+      cnts[OP_STORE ] > _max_stores||
+      cnts[OP_PRIM  ] > _max_prims ||
+      cnts[OP_NEWOBJ] > _max_newobjs ||
+      (cnts[OP_NEWOBJ]>1 && self_recursive);
+  }
+
+  // Score a caller path for splitting; the best scoring path is split.
+  // Negative paths are never split.  ncons counts the constant arguments, and
+  // call_thunk the thunk calls in the body.
+  public int score( int ncons, int call_thunk, boolean self_recursive ) { return ncons; }
+
+  // True if splitting out the best path is worth it
+  public boolean profitable( int[] cnts, int score ) {
+    return cnts[OP_IF] <= _if_slack+_ifs_per_score*score;
+  }
+
+  // Budget check for cloning a body of size Nodes, and the charge for it
+  boolean affordable( int size ) { return size <= _budget-_spent; }
+  void spend( int size ) { _spent += size; }
+  public int spent() { return _spent; }
+
+  void note( Decision d ) { _decisions[d.ordinal()]++; }
+  public long decisions( Decision d ) { return _decisions[d.ordinal()]; }
+  // Refill the budget for a new compilation
+  public void reset() { _spent = 0; }
+  public void clear() { Arrays.fill(_decisions,0); }
+
+  // Counts of the non-zero decisions, most first
+  public String report() {
+    SB sb = new SB().p("inline decisions:");
+    Decision[] ds = Decision.values().clone();
+    Arrays.sort(ds,(x,y) -> Long.compare(_decisions[y.ordinal()],_decisions[x.ordinal()]));
+    for( Decision d : ds )
+      if( _decisions[d.ordinal()] > 0 )
+        sb.p(' ').p(d.name().toLowerCase()).p('=').p(_decisions[d.ordinal()]);
+    return sb.toString();
+  }
+}
@@ -6,8 +6,8 @@ import com.cliffc.aa.type.*;
 import com.cliffc.aa.util.*;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 import static com.cliffc.aa.AA.unimpl;
@@ -51,7 +51,7 @@ public abstract class Node implements Cloneable {
   static final byte OP_THUNK  =33;
   static final byte OP_TYPE   =34;
   static final byte OP_UNR    =35;
-  static final byte OP_MAX    =36;
+  public static final byte OP_MAX =36;
 
   private static final String[] STRS = new String[] { null, "Call", "CallEpi", "Cast", "Con", "ConType", "CProj", "DefMem", "Err", "Fresh", "FP2Disp", "Fun", "FunPtr", "If", "Join", "Load", "Loop", "Name", "NewObj", "NewAry", "NewStr", "Parm", "Phi", "Prim", "Proj", "Region", "Return", "Scope","Split", "Start", "StartMem", "Store", "Thret", "Thunk", "Type", "Unresolved" };
   static { assert STRS.length==OP_MAX; }
@@ -60,37 +60,54 @@ public abstract class Node implements Cloneable {
   public  static int _INIT0_CNT;
   private static int CNT=1; // Do not hand out UID 0
   private static final VBitSet LIVE = new VBitSet();  // Conservative approximation of live; due to loops some things may be marked live, but are dead
+  private static final VBitSet FREE = new VBitSet();  // Dead uids below CNT, handed out again before growing CNT
+  private static int MAX_CNT, RECYCLED;               // Stats: high-water CNT, uids handed out again
   int newuid() {
     assert CNT < 100000 : "infinite node create loop";
-    if( CNT==AA.UID )
+    int uid = FREE.nextSetBit(0);
+    if( uid == -1 ) uid = CNT++;
+    else { FREE.clear(uid); RECYCLED++; }
+    if( CNT > MAX_CNT ) MAX_CNT = CNT;
+    if( uid==AA.UID )
       System.out.print("");
-    LIVE.set(CNT);
-    return CNT++;
+    LIVE.set(uid);
+    return uid;
   }
 
+  private static VBitSet LIVE0; // LIVE after loading primitives
+  private static Node[] VALS0;   // GVN table after loading primitives
+
   // Initial state after loading e.g. primitives.
   public static void init0() {
     assert LIVE.get(CNT-1) && !LIVE.get(CNT);
     _INIT0_CNT=CNT;
+    LIVE0 = (VBitSet)LIVE.clone();
+    VALS0 = VALS.keys();
   }
   /**
    * Reset is called after a top-level exec exits (e.g. junits) with no parse
    * state left alive.  NOT called after a line in the REPL or a user-call to
-   * "eval" as user state carries on.
+   * "eval" as user state carries on.  The primitive Nodes must already be
+   * restored, as the GVN table re-hashes them.
    */
   public static void reset_to_init0() {
-    CNT = 0;
+    CNT = _INIT0_CNT;
     LIVE.clear();
+    LIVE.or(LIVE0);
+    FREE.clear();
     VALS.clear();
+    for( Node n : VALS0 ) VALS.put_if_absent(n);
   }
 
 
   public int _uid;      // Unique ID, will have gaps, used to give a dense numbering to nodes
-  final byte _op;       // Opcode (besides the object class), used to avoid v-calls in some places
+  public final byte _op;// Opcode (besides the object class), used to avoid v-calls in some places
   public byte _keep;    // Keep-alive in parser, even as last use goes away
   public boolean _elock;// Edge-lock: cannot modify edges because messes up hashCode & GVN
-  public Type _val;     // Value; starts at ALL and lifts towards ANY.
-  public TypeMem _live; // Liveness; assumed live in gvn.iter(), assumed dead in gvn.gcp().
+  // Value and liveness are volatile: fork-join GCP threads read them across
+  // partitions, and the volatile write publishes the whole Type.
+  public volatile Type _val;     // Value; starts at ALL and lifts towards ANY.
+  public volatile TypeMem _live; // Liveness; assumed live in gvn.iter(), assumed dead in gvn.gcp().
   // Hindley-Milner inspired typing, or CNC Thesis based congruence-class
   // typing.  This is a Type Variable which can unify with other TV2s forcing
   // Type-equivalence (JOIN of unified Types), and includes gross structure
@@ -105,10 +122,11 @@ public abstract class Node implements Cloneable {
   public TV2 new_tvar(String alloc_site) { return TV2.make_leaf(this,alloc_site); }
 
   // Hash is function+inputs, or opcode+input_uids, and is invariant over edge
-  // order (so we can swap edges without rehashing)
+  // order (so we can swap edges without rehashing).  Uids are spread by the
+  // golden ratio and summed, so repeated inputs do not cancel as with xor.
   @Override public int hashCode() {
     int sum = _op;
-    for( int i=0; i<_defs._len; i++ ) if( _defs._es[i] != null ) sum ^= _defs._es[i]._uid;
+    for( int i=0; i<_defs._len; i++ ) if( _defs._es[i] != null ) sum += _defs._es[i]._uid*0x9E3779B9;
     return sum;
   }
   // Equals is function+inputs, or opcode+input_uids.  Uses pointer-equality
@@ -140,49 +158,114 @@ public abstract class Node implements Cloneable {
   }
   Node _elock() {               // No assert version, used for new nodes
     assert check_vals();        // elock & VALs match
-    if( !_elock && VALS.get(this)==null ) { _elock = true; VALS.put(this,this); }
+    if( !_elock && VALS.put_if_absent(this)==null ) _elock = true;
     return this;
   }
 
-  private boolean check_vals( ) {
-    Node x = VALS.get(this), old=null;
-    if( x == this ) old=this;   // Found in table quickly
-    // Hunt the hard way
-    else for( Node o : VALS.keySet() ) if( o._uid == _uid ) { old=o; break; }
-    return (old!=null) == _elock;
+  private boolean check_vals( ) { return VALS.contains(this) == _elock; }
+
+  // Edge back-pointers, so a use is found and removed in O(1) instead of
+  // searched for.  For def slot i, _dpos[i] is where this sits in
+  // in(i)._uses.  For use slot j, _upos[j] is the def slot of _uses.at(j)
+  // pointing at this.  Only meaningful below _defs._len and _uses._len.
+  private int[] _dpos, _upos;
+  private static int[] grow( int[] is, int i ) { return i < is.length ? is : Arrays.copyOf(is,Math.max(i+1,is.length<<1)); }
+  // Add the use for def slot idx, at the end of the def's uses
+  private void add_use( int idx, Node def ) {
+    int p = def._uses._len;
+    def._uses.add(this);
+    (def._upos = grow(def._upos,p))[p] = idx;
+    (_dpos = grow(_dpos,idx))[idx] = p;
+  }
+  // Remove use slot p from def; the last use moves into the hole, as Ary.del
+  private static void del_use( Node def, int p ) {
+    int last = def._uses._len-1;
+    if( p != last ) {           // The removed edge's def slot may be reused already
+      Node lu = def._uses._es[last];
+      int li = def._upos[last];
+      def._uses._es[p] = lu;
+      def._upos[p] = li;
+      lu._dpos[li] = p;
+    }
+    def._uses._es[last] = null;
+    def._uses._len = last;
+  }
+  // Def slot idx now holds what was in slot 'from'; point its use back at idx
+  private void move_def( int from, int idx ) {
+    Node def = _defs._es[idx];
+    if( def != null ) def._upos[_dpos[idx] = _dpos[from]] = idx;
+  }
+
+  // Back-pointers agree with the edges
+  boolean check_edges() {
+    for( int i=0; i<_defs._len; i++ ) {
+      Node def = _defs._es[i];
+      if( def != null && (def._uses.atX(_dpos[i])!=this || def._upos[_dpos[i]]!=i) ) return false;
+    }
+    for( int j=0; j<_uses._len; j++ ) {
+      Node use = _uses._es[j];
+      if( use._defs.atX(_upos[j])!=this || use._dpos[_upos[j]]!=j ) return false;
+    }
+    return true;
   }
 
   // Add def/use edge
-  public Node add_def(Node n) { unelock(); _defs.add(n); if( n!=null ) n._uses.add(this); return this; }
+  public Node add_def(Node n) {
+    unelock();
+    _defs.add(n);
+    if( n!=null ) add_use(_defs._len-1,n);
+    return this;
+  }
   // Replace def/use edge
   public Node set_def( int idx, Node n ) {
     unelock();
     Node old = _defs.at(idx);  // Get old value
     // Add edge to new guy before deleting old, in case old goes dead and
     // recursively makes new guy go dead also
-    if( (_defs._es[idx] = n) != null ) n._uses.add(this);
+    int p = old==null ? -1 : _dpos[idx];
+    if( (_defs._es[idx] = n) != null ) add_use(idx,n);
+    if( old != null ) del_use(old,p);
     return unuse(old);
   }
 
-  public void replace(Node old, Node nnn) { unelock(); _defs.replace(old,nnn); }
-
-  public Node insert (int idx, Node n) { unelock(); _defs.insert(idx,n); if( n!=null ) n._uses.add(this); return this; }
+  public Node insert (int idx, Node n) {
+    unelock();
+    _defs.insert(idx,n);
+    _dpos = grow(_dpos,_defs._len-1);
+    System.arraycopy(_dpos,idx,_dpos,idx+1,_defs._len-1-idx);
+    for( int i=idx+1; i<_defs._len; i++ ) move_def(i,i); // Shifted up one
+    if( n!=null ) add_use(idx,n);
+    return this;
+  }
   // Return Node at idx, withOUT auto-deleting it, even if this is the last
   // use.  Used by the parser to retrieve final Nodes from tmp holders.  Does
   // NOT preserve order.
   public void del( int idx ) {
     unelock();
-    Node n = _defs.del(idx);
-    if( n != null ) n._uses.del(this);
+    Node n = _defs.at(idx);
+    if( n != null ) del_use(n,_dpos[idx]);
+    _defs.del(idx);
+    if( idx < _defs._len ) move_def(_defs._len,idx);
+  }
+  public Node pop( ) { unelock(); Node n = pop_def(); unuse(n); return n; }
+  private Node pop_def() {
+    Node n = _defs.pop();
+    if( n != null ) del_use(n,_dpos[_defs._len]);
+    return n;
   }
-  public Node pop( ) { unelock(); Node n = _defs.pop(); unuse(n); return n; }
   // Remove Node at idx, auto-delete and preserve order.
-  public Node remove(int idx) { unelock(); return unuse(_defs.remove(idx)); }
+  public Node remove(int idx) {
+    unelock();
+    Node n = _defs.at(idx);
+    if( n != null ) del_use(n,_dpos[idx]);
+    _defs.remove(idx);
+    for( int i=idx; i<_defs._len; i++ ) move_def(i+1,i); // Shifted down one
+    return unuse(n);
+  }
 
+  // Either last use of old & goes dead, or at least 1 fewer uses & changes liveness
   private Node unuse( Node old ) {
     if( old == null ) return this;
-    old._uses.del(this);
-    // Either last use of old & goes dead, or at least 1 fewer uses & changes liveness
     Env.GVN.add_unuse(old);
     if( old._uses._len!=0 && old._keep ==0 ) old.add_flow_def_extra(this);
     return this;
@@ -195,9 +278,12 @@ public abstract class Node implements Cloneable {
   public void insert( Node nnn ) {
     if( _uses._len>0 ) unelock(); // Hacking edges
     while( _uses._len > 0 ) {
-      Node u = _uses.del(0);  // Old use
-      u.replace(this,nnn);    // was this now nnn
-      nnn._uses.add(u);
+      Node u = _uses._es[0];  // Old use
+      int idx = _upos[0];     // Its def slot pointing here
+      u.unelock();
+      del_use(this,0);
+      u._defs._es[idx] = nnn; // was this now nnn
+      u.add_use(idx,nnn);
     }
   }
 
@@ -217,13 +303,30 @@ public abstract class Node implements Cloneable {
     assert _uses._len==0 && _keep==0;
     // Similar to unelock(), except do not put on any worklist
     if( _elock ) { _elock = false; Node x = VALS.remove(this); assert x == this; }
-    while( _defs._len > 0 ) unuse(_defs.pop());
+    while( _defs._len > 0 ) unuse(pop_def());
     set_dead();                 // officially dead now
     LIVE.clear(_uid);           // Off the LIVE set.  CNT cannot roll back unless the GVN worklists are also clear
     return this;
   }
   // Called when GVN worklists are empty
-  public static void roll_back_CNT() { while( !LIVE.get(CNT-1) ) CNT--; }
+  public static void roll_back_CNT() {
+    while( !LIVE.get(CNT-1) ) CNT--;
+    FREE.clear(CNT,Math.max(CNT,FREE.length())); // Tail is handed out from CNT again
+  }
+  // Called when ALL GVN worklists are empty, so no dead Node is on any
+  // worklist (by uid) and the holes left by killed Nodes can be handed out
+  // again.  Keeps the uid space, and so every uid-indexed bitset, near the
+  // count of live Nodes instead of the count ever made.  Holes made later are
+  // not reused until the next call.  Primitive uids are never reused.
+  public static void recycle_uids() {
+    roll_back_CNT();
+    FREE.clear();
+    FREE.set(Math.max(1,_INIT0_CNT),CNT);
+    FREE.andNot(LIVE);
+  }
+  public static String uid_stats() {
+    return "node uids: high-water "+MAX_CNT+", live "+LIVE.cardinality()+", recycled "+RECYCLED;
+  }
 
   // "keep" a Node during all optimizations because it is somehow unfinished.
   // Typically used when needing to build several Nodes before building the
@@ -254,7 +357,9 @@ public abstract class Node implements Cloneable {
     _uid  = newuid();
     _defs = new Ary<>(defs);
     _uses = new Ary<>(new Node[1],0);
-    for( Node def : defs ) if( def != null ) def._uses.add(this);
+    _dpos = new int[_defs._es.length];
+    _upos = new int[1];
+    for( int i=0; i<defs.length; i++ ) if( defs[i] != null ) add_use(i,defs[i]);
     _val  = Type.ALL;
     _live = all_live();
     _tvar = new_tvar("constructor");
@@ -271,6 +376,8 @@ public abstract class Node implements Cloneable {
       n._uid = newuid();                  // A new UID
       n._defs = new Ary<>(new Node[1],0); // New empty defs
       n._uses = new Ary<>(new Node[1],0); // New empty uses
+      n._dpos = new int[1];
+      n._upos = new int[1];
       n._tvar = n.new_tvar("copy_constructor");
       n._keep = 0;              // Not keeping, even if cloning a mid-keeper operation
       n._elock=false;           // Not in GVN
@@ -284,6 +391,7 @@ public abstract class Node implements Cloneable {
 
   // Short string name
   public String xstr() { return STRS[_op]; } // Self short name
+  public static String xstr( int op ) { return STRS[op]; } // Opcode short name
   String  str() { return xstr(); }    // Inline longer name
   @Override public String toString() { return dump(0,new SB(),false).toString(); }
   // Dump
@@ -538,7 +646,7 @@ public abstract class Node implements Cloneable {
 
 
   // Global expressions, to remove redundant Nodes
-  public static final ConcurrentHashMap<Node,Node> VALS = new ConcurrentHashMap<>();
+  public static final GVNTable VALS = new GVNTable();
 
   // Reducing xforms, strictly fewer Nodes or Edges.  n may be either in or out
   // of VALS.  If a replacement is found, replace.  In any case, put in the
@@ -822,7 +930,7 @@ public abstract class Node implements Cloneable {
   }
 
   public boolean is_dead() { return _uses == null; }
-  public void set_dead( ) { _defs = _uses = null; }   // TODO: Poor-mans indication of a dead node, probably needs to recycle these...
+  public void set_dead( ) { _defs = _uses = null; _dpos = _upos = null; }   // TODO: Poor-mans indication of a dead node, probably needs to recycle these...
 
   // Overridden in subclasses that return TypeTuple value types.  Such nodes
   // are always followed by ProjNodes to break out the tuple slices.  If the
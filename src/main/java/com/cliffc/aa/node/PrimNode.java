@@ -37,7 +37,6 @@ public abstract class PrimNode extends Node {
   public static PrimNode[][] PRECEDENCE = null;  // Just the binary operators, grouped by precedence
   public static String  [][] PREC_TOKS  = null;  // Just the binary op tokens, grouped by precedence
   public static String  []   PRIM_TOKS  = null;  // Primitive tokens, longer first for greedy token search
-  public static void reset() { PRIMS=null; }
 
   public static PrimNode[] PRIMS() {
     if( PRIMS!=null ) return PRIMS;
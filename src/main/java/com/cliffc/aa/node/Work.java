@@ -6,34 +6,81 @@ import com.cliffc.aa.util.VBitSet;
 import java.util.function.Function;
 
 public abstract class Work implements Function<Node,Node> {
+  // Order GVNGCM.iter pulls work off a list.  LIFO revisits the most recent
+  // change first; FIFO sweeps a wavefront; RPO takes the lowest uid first,
+  // which approximates reverse-post-order as defs are mostly made before uses.
+  public enum Order { LIFO, FIFO, RPO }
+  public static Order ORDER = Order.LIFO;
+
+  // Work in insertion order.  The _on bits are the true membership: FIFO and
+  // RPO take work out of the middle, leaving a stale entry behind which is
+  // skipped when reached.
   public final Ary<Node> _work = new Ary<>(new Node[1],0);
   final VBitSet _on = new VBitSet();
+  private final Ary<Node> _uids = new Ary<>(new Node[1],0); // RPO: work by uid
+  private int _head;            // FIFO: entries before _head are taken
+  private int _cnt;             // Count of entries on
   public final String _name;
   public final boolean _replacing;
   public Work(String name, boolean replacing) { _name=name; _replacing = replacing; }
   public int len() { return _work._len; }
   public <N extends Node> N add(N n) {
-    if( !_on.tset(n._uid) ) _work.push(n);
+    if( !_on.tset(n._uid) ) {
+      _work.push(n);
+      _uids.setX(n._uid,n);
+      _cnt++;
+    }
     return n;
   }
   public abstract Node apply(Node n);
 
+  // Most recent work first
   public Node pop() {
-    if( _work._len==0 ) return null;
-    Node n = _work.pop();
+    while( _work._len > _head ) {
+      Node n = _work.pop();
+      if( _on.get(n._uid) ) return taken(n);
+    }
+    return null;
+  }
+  // Next work in ORDER
+  public Node next() {
+    switch( ORDER ) {
+    case FIFO:
+      while( _head < _work._len ) {
+        Node n = _work._es[_head];
+        _work._es[_head++] = null;
+        if( _on.get(n._uid) ) return taken(n);
+      }
+      return null;
+    case RPO: return lowest();
+    default: return pop();
+    }
+  }
+  // Lowest uid first, approximating reverse-post-order
+  public Node lowest() {
+    int uid = _on.nextSetBit(0);
+    return uid == -1 ? null : taken(_uids.at(uid));
+  }
+  // Highest uid first, approximating post-order
+  public Node highest() {
+    int uid = _on.previousSetBit(_on.length()-1);
+    return uid == -1 ? null : taken(_uids.at(uid));
+  }
+  private Node taken( Node n ) {
     _on.clear(n._uid);
+    if( --_cnt==0 ) { _work.clear(); _head=0; } // Drop any stale entries
     return n;
   }
+  // Raw entries, for lists only ever worked by add, at and del
   public Node at(int i) { return _work.at(i); }
-  public void del(int i) { _on.clear(at(i)._uid); _work.del(i); }
+  public void del(int i) { _on.clear(at(i)._uid); _work.del(i); _cnt--; }
   public void del(Node n) {
     if( !_on.get(n._uid) ) return;
-    _on.clear(n._uid);
-    _work.del(n);
+    taken(n);                   // Entry left stale
   }
 
-  public boolean isEmpty() { return _work._len==0; }
+  public boolean isEmpty() { return _cnt==0; }
   public boolean on(Node n) { return _on.test(n._uid); }
-  public void clear() { _work.clear(); _on.clear(); }
+  public void clear() { _work.clear(); _on.clear(); _head=_cnt=0; }
   @Override public String toString() { return _name+_on.toString(); }
 }
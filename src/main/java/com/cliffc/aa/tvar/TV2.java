@@ -685,7 +685,7 @@ public class TV2 {
   private void _push_update(CallEpiNode dep) {
     assert !is_unified();
     if( DEPS_VISIT.tset(_uid) ) return;
-    if( _deps!=null && _deps.get(dep._uid)!=null ) return; // Already here and in all children
+    if( _deps!=null && _deps.get(dep._uid)==dep ) return; // Already here and in all children
     if( isa("Dead") ) return;
     _deps = _deps==null ? UQNodes.make(dep) : _deps.add(dep);
     if( _args!=null )
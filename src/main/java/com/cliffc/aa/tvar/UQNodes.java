@@ -9,19 +9,20 @@ import java.util.HashMap;
  */
 public class UQNodes extends NonBlockingHashMapLong<Node> {
   private static final NonBlockingHashMap<UQNodes,UQNodes> UQSETS = new NonBlockingHashMap<>();
-  private static UQNodes KEY = new UQNodes();
+  // Per-thread set under construction; becomes the interned set if new
+  private static final ThreadLocal<UQNodes> KEY = ThreadLocal.withInitial(UQNodes::new);
   private int _hash;
 
 
-  private static UQNodes intern() {
-    KEY.setHash();
-    UQNodes uqset = UQSETS.get(KEY);
-    if( uqset==null ) {
-      UQSETS.put(uqset=KEY,KEY);
-      KEY=new UQNodes();
+  private static UQNodes intern( UQNodes key ) {
+    key.setHash();
+    UQNodes uqset = UQSETS.get(key);
+    if( uqset==null && (uqset=UQSETS.putIfAbsent(key,key))==null ) {
+      uqset=key;
+      KEY.set(new UQNodes());
     } else {
-      KEY.clear();
-      KEY._hash=0;
+      key.clear();
+      key._hash=0;
     }
     return uqset;
   }
@@ -29,25 +30,28 @@ public class UQNodes extends NonBlockingHashMapLong<Node> {
   // Make a unique set of 1 node
   public static UQNodes make( Node tn ) {
     assert !tn.is_dead();
-    assert KEY.isEmpty();
-    KEY.put(tn._uid,tn);
-    return intern();
+    UQNodes key = KEY.get();
+    assert key.isEmpty();
+    key.put(tn._uid,tn);
+    return intern(key);
   }
 
   // Add a node to a unique-set: copy, insert key, re-hash/intern.
   public UQNodes add( Node tn ) {
-    assert KEY.isEmpty();
+    UQNodes key = KEY.get();
+    assert key.isEmpty();
     assert !tn.is_dead();
-    if( get(tn._uid)!=null ) return this; // Already in there
+    if( get(tn._uid)==tn ) return this; // Already in there; a dead Node may hold a reused uid
     // Fold them together
-    for( Node n : values() ) if( !n.is_dead() ) KEY.put(n._uid,n);
-    KEY.put(tn._uid,tn);
-    return intern();
+    for( Node n : values() ) if( !n.is_dead() ) key.put(n._uid,n);
+    key.put(tn._uid,tn);
+    return intern(key);
   }
 
   // Combine two unique-sets & return the result.  Lazy remove dead nodes.
   public UQNodes addAll( UQNodes uq ) {
-    assert KEY.isEmpty();
+    UQNodes key = KEY.get();
+    assert key.isEmpty();
     if( uq==null ) return this;
 
     // Get smaller in uq0
@@ -62,22 +66,23 @@ public class UQNodes extends NonBlockingHashMapLong<Node> {
     if( !progress ) return uq1;
 
     // Fold them together
-    for( Node n : uq0.values() ) if( !n.is_dead() ) KEY.put(n._uid,n);
-    for( Node n : uq1.values() ) if( !n.is_dead() ) KEY.put(n._uid,n);
+    for( Node n : uq0.values() ) if( !n.is_dead() ) key.put(n._uid,n);
+    for( Node n : uq1.values() ) if( !n.is_dead() ) key.put(n._uid,n);
 
-    return intern();
+    return intern(key);
   }
 
   // Replace via the map
   public UQNodes rename(HashMap<Node,Node> map) {
-    assert KEY.isEmpty();
+    UQNodes key = KEY.get();
+    assert key.isEmpty();
     for( Node n : values() )
       if( !n.is_dead() ) {
         Node c = map.get(n);
         if( c==null ) c = n;
-        KEY.put(c._uid,c);
+        key.put(c._uid,c);
       }
-    return intern();
+    return intern(key);
   }
 
   private void setHash() {
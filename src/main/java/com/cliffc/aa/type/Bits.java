@@ -7,6 +7,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  Bits supporting a lattice; immutable; hash-cons'd.  Bits can be *split* in
@@ -70,23 +71,58 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
   long[] _bits;   // Bits set or null for a single bit
   int _con;       // value of single bit
   int _hash;      // Pre-computed hashcode
+  // Small sets, all bits below 128, are most of them.  Every set also keeps
+  // its first two words inline, so small sets are built in registers, and
+  // hashed and compared without an array; only a set new to the intern table
+  // gets its _bits array.  _len is the count of words, 0 for a single bit.
+  long _w0, _w1;
+  int _len;
   // Intern: lookup and return an existing Bits or install in hashmap and
   // return a new Bits.  Overridden in subclasses to make type-specific Bits.
   abstract B make_impl(int con, long[] bits );
+  // Same, from the words of a small set of more than one bit (or just nil)
+  abstract B make_impl(int con, long w0, long w1 );
   abstract Tree<B> tree();
   public abstract B ALL();
   public abstract B ANY();
   public abstract B EMPTY();
 
   // Common init
-  void init(int con, long[] bits ) {
+  @SuppressWarnings("unchecked")
+  B init(int con, long[] bits ) {
     _con = con;
     _bits=bits;
+    _len = bits==null ? 0 : bits.length;
+    _w0 = _len > 0 ? bits[0] : 0;
+    _w1 = _len > 1 ? bits[1] : 0;
     long sum=_con;
     if( _bits != null ) for( long l : _bits ) sum += l;
     _hash = (int)((sum>>32)+sum);
     if( _hash==0 ) _hash=1;
     assert check();
+    return (B)this;
+  }
+  // Init a probe from the words of a small set; no _bits until interned
+  @SuppressWarnings("unchecked")
+  B init(int con, long w0, long w1 ) {
+    _con = con;
+    _bits = null;
+    _len = w1==0 ? 1 : 2;
+    _w0 = w0;
+    _w1 = w1;
+    long sum = con+w0+w1;
+    _hash = (int)((sum>>32)+sum);
+    if( _hash==0 ) _hash=1;
+    return (B)this;
+  }
+  // Give a probe being interned its _bits
+  @SuppressWarnings("unchecked")
+  B inflate() {
+    if( _bits==null && _len > 0 ) {
+      _bits = _len==1 ? new long[]{_w0} : new long[]{_w0,_w1};
+      assert check();
+    }
+    return (B)this;
   }
   private boolean check() {
     if( _bits==null ) return true;  // Must be a single bit#
@@ -98,9 +134,8 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
     // No set bit has a parent bit set, because the parent overrides
     Tree<B> tree = tree();
     for( int i : this )
-      while( (i = tree.parent(i)) != 0 )
-        if( test(i) )
-          return false;
+      if( tree.par_set(i,_bits) )
+        return false;
     // For efficiency, 1 bit set uses 'con' instead of 'bits'
     return check_multi_bits(_bits); // Found multiple bits
   }
@@ -124,7 +159,8 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
     if( this==o ) return true;
     if( !(o instanceof Bits) ) return false;
     Bits bs = (Bits)o;
-    if( _con != bs._con || _hash != bs._hash ) return false;
+    if( _con != bs._con || _hash != bs._hash || _len != bs._len ) return false;
+    if( _len <= 2 ) return _w0==bs._w0 && _w1==bs._w1;
     if( _bits == bs._bits ) return true;
     if( _bits ==null || bs._bits==null ) return false;
     if( _bits.length != bs._bits.length ) return false;
@@ -156,19 +192,10 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
   private B make( boolean any, long[] bits ) {
     // If a 'parent' bit is set, then no need to have any child bits set.
     Tree<B> tree = tree();
-    // TODO: Run this loop backwards, avoids most tree-walks; lowers O(n log n) to O(n).
-    for( int i=0; i<bits.length; i++ ) { // For all words
-      long l = bits[i];
-      if( l!=0 ) {
-        for( int j=0; j<64; j++ ) // For all bits in word
-          if( (mask(j)&l) != 0 ) {
-            int par = (i<<6)+j; // Kid index
-            while( (par = tree.parent(par)) != 0 ) // Walk parent chain
-              if( test(bits,par) )                 // If parent set
-                { bits[i]&=~mask(j); break; }      // then clear kid
-          }
-      }
-    }
+    for( int i=0; i<bits.length; i++ ) // For all words
+      for( long l=bits[i]; l!=0; l&=l-1 ) // For all bits in word
+        if( tree.par_set((i<<6)+Long.numberOfTrailingZeros(l),bits) ) // If parent set
+          bits[i] &= ~Long.lowestOneBit(l); // then clear kid
 
     // Remove any trailing empty words
     int len = bits.length;
@@ -187,12 +214,39 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
     if( any ) bnum = -bnum;
     return make_impl(bnum,null);
   }
+  // Same as make(any,bits) for a small set, in registers
+  private B make( boolean any, long w0, long w1 ) {
+    // If a 'parent' bit is set, then no need to have any child bits set.
+    Tree<B> tree = tree();
+    for( long l=w0; l!=0; l&=l-1 )
+      if( tree.par_set(Long.numberOfTrailingZeros(l),w0,w1) )
+        w0 &= ~Long.lowestOneBit(l);
+    for( long l=w1; l!=0; l&=l-1 )
+      if( tree.par_set(64+Long.numberOfTrailingZeros(l),w0,w1) )
+        w1 &= ~Long.lowestOneBit(l);
+    // Multiple bits, or just nil
+    if( Long.bitCount(w0)+Long.bitCount(w1) > 1 || (w1==0 && w0==1) )
+      return make_impl(any ? -1 : 1,w0,w1);
+    // Empty is self-dual, ignores 'any'
+    if( w0==0 && w1==0 ) return make_impl(0,null);
+    // Single bit
+    int bnum = w1==0 ? 63-Long.numberOfLeadingZeros(w0) : 127-Long.numberOfLeadingZeros(w1);
+    return make_impl(any ? -bnum : bnum,null);
+  }
+  private static boolean test( long w0, long w1, int i ) { return i < 64 ? (w0&mask(i))!=0 : i < 128 && (w1&mask(i))!=0; }
+
   // Constructor taking a single bit
   final B make( int bit ) { return bit==0 ? make_impl(1,new long[]{1}) : make_impl(bit,null); }
   // Constructor taking an array of bits
   public final B make( int... bits ) {
     int max= 0;                // Find max bit
     for( int bit : bits ) max=Math.max(max,bit);
+    if( max < 128 ) {
+      long w0=0, w1=0;
+      for( int bit : bits )
+        if( bit < 64 ) w0 |= mask(bit); else w1 |= mask(bit);
+      return make(false,w0,w1);
+    }
     long[] ls = bits(max);  // Big enuf bits
     for( int bit : bits ) or(ls,bit);
     return make(false,ls);
@@ -214,6 +268,7 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
   public B meet_nil() {
     if( above_center() ) return make(0); // Crossing centerline, drop all above bits, just [0]
     if( test(0) ) return (B)this;// Already has nil
+    if( small() ) return make(false,w0()|1,w1());
     long[] bs = _bits;
     if( bs==null )              // Is a single compressed bit
       or(bs = bits(Math.abs(_con)),Math.abs(_con)); // Decompress single bit into array
@@ -227,17 +282,16 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
   // Test a specific bit is set or clear on this Bits
   public boolean test(int i) {
     if( _bits==null ) return i!=0 && i==Math.abs(_con);
+    if( i < 128 ) return test(_w0,_w1,i);
     int idx = idx(i);
     return idx < _bits.length && test(_bits, i);
   }
   // Test if this bit, or any parent of this bit, is set
   public boolean test_recur( int i ) {
     if( test(i) ) return true;
-    Tree<B> tree = tree();
-    while( (i = tree.parent(i)) != 0 )
-      if( test(i) )
-        return true;
-    return false;
+    if( _bits!=null ) return tree().par_set(i,_bits);
+    int con = Math.abs(_con);
+    return con!=0 && tree().is_parent(con,i);
   }
 
   // Return the type without a nil-choice.  Only applies to above_center types,
@@ -248,6 +302,7 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
   B not_nil() {
     if( !above_center() || _bits == null ) return (B)this;  // Some constant not-nil
     if( !test(_bits,0) ) return (B)this; // No nil choice
+    if( small() ) return make(true,_w0&~1,_w1);
     long[] bs = _bits.clone();           // Keep all other bits
     and(bs,0);                           // remove nil choice
     return make(true,bs);                // Choices without nil
@@ -257,6 +312,7 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
   public B clear(int bit) {
     if( !test(bit) ) return (B)this;
     if( _bits == null ) return EMPTY();
+    if( small() ) return make(_con==-1,bit<64 ? _w0&~mask(bit) : _w0,bit<64 ? _w1 : _w1&~mask(bit));
     long[] bs = _bits.clone();
     and(bs,bit);
     return make(_con==-1,bs);
@@ -275,11 +331,17 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
   public B strip_nil() {
     if( _bits == null ) return (B)this; // Should not be a nil to remove
     if( (_bits[0] &1)==0 ) return (B) this; // No nil
+    if( small() ) return make(_con==-1,_w0&~1,_w1);
     long[] bs = _bits.clone();
     bs[0] &= ~1;                // Strip nil
     return make(_con==-1,bs);
   }
 
+  // All bits below 128; the words of a single bit are expanded, so not EMPTY
+  boolean small() { return _len==0 ? Math.abs(_con) < 128 : _len <= 2; }
+  long w0() { return _len > 0 ? _w0 : (Math.abs(_con) < 64 ? mask(Math.abs(_con)) : 0); }
+  long w1() { return _len > 0 ? _w1 : (Math.abs(_con) < 64 ? 0 : mask(Math.abs(_con))); }
+
   private static void or ( long[] bits, long con ) { bits[idx(con)] |=  mask(con); }
   private static void and( long[] bits, long con ) { bits[idx(con)] &= ~mask(con); }
   private static long[] bits( int b ) { return new long[idx(b)+1]; }
@@ -309,6 +371,7 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
     // itself falls to below values.
     if( is_empty() ) return bs.above_center() ? (B)this : bs;
     if( bs.is_empty() ) return above_center() ? bs : (B)this;
+    if( small() && bs.small() ) return meet_small(bs);
 
     long[] bits0 = _bits, bits1 = bs._bits;
     int con0 = Math.abs(_con), con1 = Math.abs(bs._con);
@@ -345,24 +408,47 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
     return above_center() ? bs : (B)this;
   }
 
+  // Same as meet for two small sets, in registers
+  @SuppressWarnings("unchecked")
+  private B meet_small( B bs ) {
+    long a0 = w0(), a1 = w1(), b0 = bs.w0(), b1 = bs.w1();
+    boolean any0 = _con < 0, any1 = bs._con < 0;
+    // Both meets?  Set-union
+    if( !any0 && !any1 ) return make(false,a0|b0,a1|b1);
+    // Both joins?  Set-intersection
+    if( any0 && any1 ) {
+      Tree<B> tree = tree();
+      long r0 = join(tree,a0,0,b0,b1) | join(tree,b0,0,a0,a1);
+      long r1 = join(tree,a1,64,b0,b1) | join(tree,b1,64,a0,a1);
+      // Nil is not part of the parent tree, so needs to be set explicitly
+      if( (a0&1)==1 && (b0&1)==1 ) r0 |= 1;
+      return make(true,r0,r1);
+    }
+    // Mixed meet/join.  Toss away the join, keep only the meet bits.
+    return above_center() ? bs : (B)this;
+  }
+  // Bits of word w (bits from base) with itself or a parent set in b0,b1
+  private static long join( Tree tree, long w, int base, long b0, long b1 ) {
+    long r=0;
+    for( long l=w; l!=0; l&=l-1 ) {
+      int kid = base+Long.numberOfTrailingZeros(l);
+      if( kid!=0 && (test(b0,b1,kid) || tree.par_set(kid,b0,b1)) )
+        r |= Long.lowestOneBit(l);
+    }
+    return r;
+  }
+
   // Virtually expand all bits in both arrays to cover all children,
   // then AND the bits, then re-pack.  However, we do it tree-by-tree
   // to keep from doing the full expansion costs.
   private static void join( Tree tree, long[] bits0, long[] bits1, long[] bits2 ) {
     // If a 'parent' bit is set, then no need to have any child bits set.
-    for( int i=0; i<bits0.length; i++ ) { // For all words
-      long l = bits0[i];
-      if( l!=0 ) {
-        // TODO: Use Long.numberOfTrailingZeros (or LeadingZeros probably) to
-        // do this only once-per-set-bit.
-        for( int j=0; j<64; j++ ) // For all bits in word
-          if( (mask(j)&l) != 0 ) {
-            for( int par = (i<<6)+j; par!=0; par = tree.parent(par) ) // Walk parent chain
-              if( test(bits1,par) )                // If parent set
-                { bits2[i]|=mask(j); break; }      // then set kid
-          }
+    for( int i=0; i<bits0.length; i++ ) // For all words
+      for( long l=bits0[i]; l!=0; l&=l-1 ) { // For all bits in word
+        int kid = (i<<6)+Long.numberOfTrailingZeros(l);
+        if( kid!=0 && (test(bits1,kid) || tree.par_set(kid,bits1)) ) // If kid or parent set
+          bits2[i] |= Long.lowestOneBit(l); // then set kid
       }
-    }
   }
 
   // Constants are self-dual; classes just flip the meet/join bit.
@@ -401,85 +487,150 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
   // Bits are split in a tree like pattern, recorded here.  To avoid rehashing,
   // the exact same tree-split is handed out between tests.  Basically there is
   // only 1 tree shape, lazily discovered, for all tests.
+  //
+  // The split tree is shared by all threads.  Readers never lock or wait:
+  // the arrays are published through volatile fields, and a kid list, once
+  // published, is never changed - split() copies it, adds the kid, and
+  // publishes the copy.  Writers take the tree's lock, so bit numbers are
+  // handed out atomically and each parent's kid list grows in bit order.  A
+  // reader may see a tree missing splits made after it last looked, but
+  // always a consistent one, and the parent of any bit it was handed.
+  //
+  // Each bit also records its proper ancestors below 128 as a two-word mask,
+  // extended on split from its parent's.  Kids are numbered above their
+  // parents, so for bits below 128 - the small sets, and in practice nearly
+  // every alias and fidx - ancestor and nearest-parent-in-a-set queries are
+  // a mask test, not a walk up the parent chain.
   public static class Tree<B extends Bits<B>> {
-    int _cnt = 1; // Next available bit number
+    private volatile int _cnt = 1; // Next available bit number
     // Invariants: _pars[kid]==parent && _kids[parent].contains(kid)
-    int[]   _pars = new int[2];  // Parent bit from child bit; _cnt is the in-use part
-    int[][] _kids = new int[2][];// List of kids from a parent; 1st element is in-use length
-    int[] _init;                 // Used to reset _kids[X][0] for all X
+    private volatile int[] _pars = new int[2]; // Parent bit from child bit; _cnt is the in-use part
+    private volatile long[] _anc = new long[4]; // Proper ancestors below 128, 2 words per bit
+    private volatile AtomicReferenceArray<int[]> _kids = new AtomicReferenceArray<>(2); // List of kids from a parent; 1st element is in-use length
+    private int[] _init;                 // Used to reset _kids[X][0] for all X
 
     int parent( int kid ) { return _pars[kid]; }
-    public boolean is_parent( int idx ) { return idx<_kids.length && _kids[idx]!=null &&_kids[idx][0]>1; }
+    public boolean is_parent( int idx ) { int[] kids = kids(idx); return kids!=null && kids[0]>1; }
+    // Kids of par: count+1 at slot 0, kids at slots 1 and up; null if none.
+    int[] kids( int par ) { AtomicReferenceArray<int[]> ks = _kids; return par < ks.length() ? ks.get(par) : null; }
     // Return two kids at slots ary[1] and ary[2].
-    public int[] get_kids( int par ) { assert _kids[par][0]==3; return _kids[par]; }
+    public int[] get_kids( int par ) { int[] kids = kids(par); assert kids[0]==3; return kids; }
     // True if kid is a child or equal to parent
     boolean is_parent( int par, int kid ) {
-      for( ; par <= kid; kid = parent(kid) )
-        if( par==kid ) return true;
-      return false;             // Kid will be a larger number
+      int[] pars = _pars;
+      for( ; par < kid && kid >= 128; kid = pars[kid] ) ; // Walk down to the masks
+      if( par >= kid ) return par==kid; // Kid will be a larger number
+      return par==0 || test(_anc,(kid<<7)+par);
+    }
+    // Some proper ancestor of i is in the small set w0,w1
+    boolean par_set( int i, long w0, long w1 ) {
+      long[] anc = _anc;
+      return ((anc[i<<1]&w0) | (anc[(i<<1)+1]&w1)) != 0;
+    }
+    // Some proper ancestor of i is in bits: ancestors from 128 up by walking,
+    // the rest by mask
+    boolean par_set( int i, long[] bits ) {
+      int[] pars = _pars;
+      for( int par=pars[i]; par >= 128; par = pars[par] )
+        if( test(bits,par) )
+          return true;
+      return par_set(i,bits.length > 0 ? bits[0] : 0,bits.length > 1 ? bits[1] : 0);
     }
+    // Nearest proper ancestor of i in the small set m0,m1, or 0 if none.
+    // Ancestors are numbered below their kids, so the nearest is the largest.
+    int nearest( int i, long m0, long m1 ) {
+      long[] anc = _anc;
+      long a1 = anc[(i<<1)+1]&m1;
+      if( a1 != 0 ) return 127-Long.numberOfLeadingZeros(a1);
+      long a0 = anc[i<<1]&m0;
+      return a0==0 ? 0 : 63-Long.numberOfLeadingZeros(a0);
+    }
+    int size() { return _cnt; } // Bit numbers handed out so far, plus 1
 
     @Override public String toString() { return toString(new SB(),1).toString(); }
     private SB toString(SB sb,int i) {
       sb.i().p(i).nl();
-      if( is_parent(i) ) {
+      int[] kids = kids(i);
+      if( kids!=null && kids[0]>1 ) {
         sb.ii(1);
-        for( int j=1; j<_kids[i][0]; j++ )
-          toString(sb,_kids[i][j]);
+        for( int j=1; j<kids[0]; j++ )
+          toString(sb,kids[j]);
         sb.di(1);
       }
       return sb;
     }
 
     // Split out a bit to form a new constant, from a prior a bit
-    int split(int par) {
+    synchronized int split(int par) {
       // See if we have an existing bit
-      if( par < _kids.length ) { // This parent has kids already
-        int[] kids = _kids[par]; //
-        if( kids != null ) {
-          int klen = kids[0];        // Number of kids already, 1-based
-          if( klen < kids.length ) { // Room for more in array?
-            int bit = kids[klen];
-            if( bit != 0 ) {            // Pre-allocated kid from prior test?
-              assert _pars[bit] == par; // Then parent must already be preallocated
-              kids[0] = klen+1;
-              return bit;
-            }
+      int[] kids = kids(par);   // All the children of 'par'
+      if( kids != null ) {      // This parent has kids already
+        int klen = kids[0];     // Number of kids already, 1-based
+        if( klen < kids.length ) { // Room for more in array?
+          int bit = kids[klen];
+          if( bit != 0 ) {            // Pre-allocated kid from prior test?
+            assert _pars[bit] == par; // Then parent must already be preallocated
+            kids = kids.clone();
+            kids[0] = klen+1;
+            _kids.set(par,kids);
+            return bit;
           }
         }
       }
       // Need a new bit
-      int bit = _cnt++; // Next available bit number
+      int bit = _cnt;           // Next available bit number
 
       // Make space in the parents array to hold the parent of 'bit'
-      while( bit >= _pars.length ) _pars = Arrays.copyOf(_pars,_pars.length<<1);
-      assert _pars[bit]==0;
-      _pars[bit] = par;
+      int[] pars = _pars;
+      long[] anc = _anc;
+      if( bit >= pars.length ) {
+        pars = Arrays.copyOf(pars,pars.length<<1);
+        anc  = Arrays.copyOf(anc ,pars.length<<1);
+      }
+      assert pars[bit]==0;
+      pars[bit] = par;
+      anc[bit<<1] = anc[par<<1];  anc[(bit<<1)+1] = anc[(par<<1)+1];
+      if( par != 0 && par < 128 ) or(anc,(bit<<7)+par);
+      _anc  = anc;              // Publish the parent and ancestors before the bit
+      _pars = pars;
       // Make space in the kids array to hold the children of 'par'
-      while( par >= _kids.length ) _kids = Arrays.copyOf(_kids,_kids.length<<1);
-      int[] kids = _kids[par];  // All the children of 'par'
-      if( kids==null ) _kids[par] = kids = new int[]{1};
-      int klen = kids[0];       // 1-based number of children.  '1' means 'no children'
-      if( klen == kids.length ) // Make space as needed
-        _kids[par] = kids = Arrays.copyOf(kids,klen<<1);
+      AtomicReferenceArray<int[]> ks = _kids;
+      if( par >= ks.length() ) {
+        AtomicReferenceArray<int[]> ks2 = new AtomicReferenceArray<>(Math.max(par+1,ks.length()<<1));
+        for( int i=0; i<ks.length(); i++ ) ks2.set(i,ks.get(i));
+        _kids = ks = ks2;
+      }
+      int klen = kids==null ? 1 : kids[0]; // 1-based number of children.  '1' means 'no children'
+      kids = kids==null ? new int[2] : Arrays.copyOf(kids,klen==kids.length ? klen<<1 : kids.length);
       kids[klen] = bit;         // Insert new child of parent
       kids[0] = klen+1;         // Bump count of children
+      ks.set(par,kids);
+      _cnt = bit+1;
       return bit;
     }
 
-    // Record all starting types tree relationships.
-    void init0() {
-      _init = new int[_kids.length];
-      for( int i=0; i<_kids.length; i++ )
-        _init[i] = _kids[i]==null ? 1 : _kids[i][0];
+    // Record all starting types tree relationships.  Not concurrent with split.
+    synchronized void init0() {
+      AtomicReferenceArray<int[]> ks = _kids;
+      _init = new int[ks.length()];
+      for( int i=0; i<ks.length(); i++ )
+        _init[i] = ks.get(i)==null ? 1 : ks.get(i)[0];
     }
-    // Chop back alias tree to only those types recorded during 'init0'
-    void reset_to_init0() {
-      for( int i=0; i<_kids.length; i++ )
-        if( _kids[i] != null )
-          _kids[i][0] = i<_init.length ? _init[i] : 1;
+    // Chop back alias tree to only those types recorded during 'init0'.  Kept
+    // bits are re-used, in order, by later splits.
+    synchronized void reset_to_init0() {
+      AtomicReferenceArray<int[]> ks = _kids;
+      for( int i=0; i<ks.length(); i++ ) {
+        int[] kids = ks.get(i);
+        int init = i<_init.length ? _init[i] : 1;
+        if( kids != null && kids[0] != init ) {
+          kids = kids.clone();
+          kids[0] = init;
+          ks.set(i,kids);
+        }
+      }
     }
-    int peek() { return _kids[1][_kids[1][0]]; } // for testing
+    int peek() { int[] kids = kids(1); return kids[kids[0]]; } // for testing
     // Smear out the kids in a non-canonical representation, to allow the caller
     // to iterate more easily.
     public VBitSet plus_kids( Bits<B> bits) {
@@ -491,9 +642,10 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
     }
     void _plus_kids(VBitSet bs, int i) {
       bs.set(i);
-      int nkids = i >= _kids.length || _kids[i]==null ? 0 : _kids[i][0];
+      int[] kids = kids(i);
+      int nkids = kids==null ? 0 : kids[0];
       for( int kid=1; kid<nkids; kid++ )
-        _plus_kids(bs,_kids[i][kid]);
+        _plus_kids(bs,kids[kid]);
     }
 
     // Return next child of alias; repeated calls iterate over all the children
@@ -501,15 +653,16 @@ public abstract class Bits<B extends Bits<B>> implements Iterable<Integer> {
     // for( int kid=alias; kid!=0; kid=BitsAlias.next_kid(alias,kid) ) {...kid... }
     public int next_kid( int alias, int kid ) {
       if( kid==0 ) return 0;
-      boolean is_par = is_parent(kid);
+      int[] kids = kids(kid);
+      boolean is_par = kids!=null && kids[0]>1;
       if( kid==alias && !is_par ) return 0; // Singleton bit
       // Find kid in the alias-tree
       if( is_par ) {            // Go deeper
-        return _kids[kid][1];   // First child one layer deeper
+        return kids[1];         // First child one layer deeper
       } else {                  // Leaf, unwind & find sibling
         while(kid!=alias) {
-          int par = _pars[kid];    // Parent
-          int[] kids = _kids[par]; // All the parents' children
+          int par = parent(kid);   // Parent
+          kids = kids(par);        // All the parents' children
           for( int i=1; i<kids[0]-1; i++ )
             if( kids[i]==kid )
               return kids[i+1]; // Return sibling
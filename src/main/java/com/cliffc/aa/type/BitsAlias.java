@@ -1,6 +1,6 @@
 package com.cliffc.aa.type;
 
-import java.util.HashMap;
+import com.cliffc.aa.util.GenIntern;
 
 /**
  * Alias Bits supporting a lattice; immutable; hash-cons'd.
@@ -9,16 +9,16 @@ import java.util.HashMap;
 public class BitsAlias extends Bits<BitsAlias> {
   // Intern: lookup and return an existing Bits or install in hashmap and
   // return a new Bits.  Overridden in subclasses to make type-specific Bits.
-  private static final HashMap<BitsAlias,BitsAlias> INTERN = new HashMap<>();
-  private static BitsAlias FREE=null;
-  @Override BitsAlias make_impl(int con, long[] bits ) {
-    BitsAlias b1 = FREE;
-    if( b1 == null ) b1 = new BitsAlias();
-    else FREE = null;
-    b1.init(con,bits);
+  static final GenIntern<BitsAlias> INTERN = new GenIntern<>();
+  // Spare probe, one per thread; kept when the probe finds an existing Bits
+  private static final ThreadLocal<BitsAlias> FREE = ThreadLocal.withInitial(BitsAlias::new);
+  @Override BitsAlias make_impl(int con, long[] bits ) { return intern(FREE.get().init(con,bits)); }
+  @Override BitsAlias make_impl(int con, long w0, long w1 ) { return intern(FREE.get().init(con,w0,w1)); }
+  private static BitsAlias intern( BitsAlias b1 ) {
     BitsAlias b2 = INTERN.get(b1);
-    if( b2 != null ) { FREE = b1; return b2; }
-    else { INTERN.put(b1,b1); return b1; }
+    if( b2 != null ) return b2;
+    FREE.set(new BitsAlias()); // Probe goes into the table, unless another thread wins
+    return INTERN.put_if_absent(b1.inflate());
   }
 
   static final Bits.Tree<BitsAlias> TREE = new Bits.Tree<>();
@@ -1,22 +1,22 @@
 package com.cliffc.aa.type;
 
-import java.util.HashMap;
+import com.cliffc.aa.util.GenIntern;
 
 /** Function index Bits supporting a lattice; immutable; hash-cons'd. */
 
 public class BitsFun extends Bits<BitsFun> {
   // Intern: lookup and return an existing Bits or install in hashmap and
   // return a new Bits.  Overridden in subclasses to make type-specific Bits.
-  private static final HashMap<BitsFun,BitsFun> INTERN = new HashMap<>();
-  private static BitsFun FREE=null;
-  @Override BitsFun make_impl(int con, long[] bits ) {
-    BitsFun b1 = FREE;
-    if( b1 == null ) b1 = new BitsFun();
-    else FREE = null;
-    b1.init(con,bits);
+  static final GenIntern<BitsFun> INTERN = new GenIntern<>();
+  // Spare probe, one per thread; kept when the probe finds an existing Bits
+  private static final ThreadLocal<BitsFun> FREE = ThreadLocal.withInitial(BitsFun::new);
+  @Override BitsFun make_impl(int con, long[] bits ) { return intern(FREE.get().init(con,bits)); }
+  @Override BitsFun make_impl(int con, long w0, long w1 ) { return intern(FREE.get().init(con,w0,w1)); }
+  private static BitsFun intern( BitsFun b1 ) {
     BitsFun b2 = INTERN.get(b1);
-    if( b2 != null ) { FREE = b1; return b2; }
-    else { INTERN.put(b1,b1); return b1; }
+    if( b2 != null ) return b2;
+    FREE.set(new BitsFun()); // Probe goes into the table, unless another thread wins
+    return INTERN.put_if_absent(b1.inflate());
   }
 
   private static final Bits.Tree<BitsFun> TREE = new Bits.Tree<>();
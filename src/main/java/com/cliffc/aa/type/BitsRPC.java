@@ -1,8 +1,7 @@
 package com.cliffc.aa.type;
 
 import com.cliffc.aa.util.Ary;
-
-import java.util.HashMap;
+import com.cliffc.aa.util.GenIntern;
 
 /**
  * RPC Bits supporting a lattice; immutable; hash-cons'd.
@@ -10,16 +9,16 @@ import java.util.HashMap;
 public class BitsRPC extends Bits<BitsRPC> {
   // Intern: lookup and return an existing Bits or install in hashmap and
   // return a new Bits.  Overridden in subclasses to make type-specific Bits.
-  private static HashMap<BitsRPC,BitsRPC> INTERN = new HashMap<>();
-  private static BitsRPC FREE=null;
-  @Override BitsRPC make_impl(int con, long[] bits ) {
-    BitsRPC b1 = FREE;
-    if( b1 == null ) b1 = new BitsRPC();
-    else FREE = null;
-    b1.init(con,bits);
+  static final GenIntern<BitsRPC> INTERN = new GenIntern<>();
+  // Spare probe, one per thread; kept when the probe finds an existing Bits
+  private static final ThreadLocal<BitsRPC> FREE = ThreadLocal.withInitial(BitsRPC::new);
+  @Override BitsRPC make_impl(int con, long[] bits ) { return intern(FREE.get().init(con,bits)); }
+  @Override BitsRPC make_impl(int con, long w0, long w1 ) { return intern(FREE.get().init(con,w0,w1)); }
+  private static BitsRPC intern( BitsRPC b1 ) {
     BitsRPC b2 = INTERN.get(b1);
-    if( b2 != null ) { FREE = b1; return b2; }
-    else { INTERN.put(b1,b1); return b1; }
+    if( b2 != null ) return b2;
+    FREE.set(new BitsRPC()); // Probe goes into the table, unless another thread wins
+    return INTERN.put_if_absent(b1.inflate());
   }
 
   private static final Bits.Tree<BitsRPC> TREE = new Bits.Tree<>();
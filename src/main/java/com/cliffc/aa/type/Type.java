@@ -2,8 +2,11 @@ package com.cliffc.aa.type;
 
 import com.cliffc.aa.util.*;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Predicate;
 
 /**
@@ -82,13 +85,14 @@ public class Type<T extends Type<T>> implements Cloneable {
   T _dual; // All types support a dual notion, eagerly computed and cached here
 
   protected Type() { _uid = _uid(); }
-  private int _uid() { return CNT++; }
+  private int _uid() { synchronized( INTERN ) { return CNT++; } }
   @SuppressWarnings("unchecked")
   protected T init(byte type, String name) { _type=type; _name=name; return (T)this; }
   @Override public final int hashCode( ) { assert _hash!=0; return _hash; }
   // Compute the hash and return it, with all child types already having their
   // hash computed.  Subclasses override this.
-  int compute_hash() { return (_type<<1)|1|_name.hashCode(); }
+  int compute_hash() { return hash(_type,_name); }
+  static int hash( byte type, String name ) { return (type<<1)|1|name.hashCode(); }
 
   // Is anything equals to this?
   @Override public boolean equals( Object o ) {
@@ -133,15 +137,22 @@ public class Type<T extends Type<T>> implements Cloneable {
   }
   @SuppressWarnings("unchecked")
   final T hashcons_free() {
-    T t2 = hashcons();
-    return this==t2 ? t2 : (T)POOLS[_type].free(this,t2);
+    synchronized( INTERN ) {
+      T t2 = hashcons();
+      return this==t2 ? t2 : (T)POOLS[_type].free(this,t2);
+    }
   }
 
   // ----------------------------------------------------------
   // Hash-Cons - all Types are interned in this hash table.  Thus an equality
   // check of a (possibly very large) Type is always a simple pointer-equality
   // check, except during construction and intern'ing.
-  private static final ConcurrentHashMap<Type,Type> INTERN = new ConcurrentHashMap<>();
+  //
+  // Lookups are lock-free.  Type construction is single-threaded: the pools,
+  // uids, interning and the recursive-meet state are all under the INTERN
+  // lock, as are the cyclic-type builders in TypeStruct.  A made Type is
+  // private to its maker until interned.
+  static final GenIntern<Type> INTERN = new GenIntern<>();
   public static int RECURSIVE_MEET;    // Count of recursive meet depth
   @SuppressWarnings("unchecked")
   private T hashcons() {
@@ -154,19 +165,20 @@ public class Type<T extends Type<T>> implements Cloneable {
     }
     if( RECURSIVE_MEET > 0 )    // Mid-building recursive types; do not intern
       return (T)this;
-    // Not in type table
+    // Not in type table.  Complete the dual before putting either, as the
+    // put publishes the type to lock-free lookups in other threads.
     _dual = null;                // No dual yet
-    INTERN.put(this,this);       // Put in table without dual
     T d = xdual();               // Compute dual without requiring table lookup, and not setting name
     d._name = _name;             // xdual does not set name either
     d._hash = d.compute_hash();  // Set dual hash
     _dual = d;
-    if( this==d ) return d;      // Self-symmetric?  Dual is self
+    if( this==d ) { INTERN.put(this); return d; } // Self-symmetric?  Dual is self
     assert !equals(d);           // Self-symmetric is handled by caller
     assert d._dual==null;        // Else dual-dual not computed yet
     assert INTERN.get(d)==null;
     d._dual = (T)this;
-    INTERN.put(d,d);
+    INTERN.put(this);
+    INTERN.put(d);
     return (T)this;
   }
   // Remove a forward-ref type from the interning dictionary, prior to
@@ -184,16 +196,63 @@ public class Type<T extends Type<T>> implements Cloneable {
     assert _dual._dual == this;
     assert _hash != 0;
     assert INTERN.get(this)==null;
-    INTERN.put(this,this);
+    INTERN.put(this);
     assert INTERN.get(this)==this;
     return (T)this;
   }
+  // Probe by a stand-in key for a Type not yet made: the key hashes as the
+  // Type would, and equals() it by fields.  Makers probe first, and on a hit
+  // return the prior Type having neither malloc'd nor init'd one.
+  @SuppressWarnings("unchecked")
+  static <T extends Type> T probe( Object key ) {
+    T t2 = (T)INTERN.probe(key);
+    assert t2==null || t2._dual != null; // Prior is complete with dual
+    return t2;
+  }
   boolean interned() { return INTERN.get(this)==this; }
   Type intern_lookup() { return INTERN.get(this); }
   static int intern_size() { return INTERN.size(); }
+
+  // Intern generations.  Types made up to the loading of the primitives are
+  // permanent; after, each compile is a generation.  Starting the next demotes
+  // the last to weakly held: its types are reclaimed once unused, as are the
+  // Type[]s, Bits and meet memo entries only they used.  Types still in use
+  // (e.g. a result held by the caller) stay interned, and so stay unique.
+  public static void freeze_intern() {
+    synchronized( INTERN ) {
+      INTERN.freeze();
+      Types.freeze();
+      TypeFlds.freeze();
+      BitsAlias.INTERN.freeze();
+      BitsFun  .INTERN.freeze();
+      BitsRPC  .INTERN.freeze();
+    }
+  }
+  public static void new_intern_generation() {
+    synchronized( INTERN ) {
+      if( !INTERN.frozen() ) return; // Still loading the permanent types
+      INTERN.new_generation();
+      Iterable<Type> olds = INTERN.old_values();
+      Types.new_generation(olds);
+      TypeFlds.new_generation(olds);
+      BitsAlias.INTERN.new_generation();
+      BitsFun  .INTERN.new_generation();
+      BitsRPC  .INTERN.new_generation();
+      Key.retain_perm();
+      TypeMem.sharp_cache_clear();
+    }
+  }
+  // Intern table sizes: permanent, then by generation from the current one
+  // back, then the count reclaimed.
+  public static long[] intern_sizes() { synchronized( INTERN ) { return INTERN.sizes(); } }
+  public static String intern_stats() {
+    synchronized( INTERN ) {
+      return INTERN.stats("types")+"; "+BitsAlias.INTERN.stats("aliases")+"; "+BitsFun.INTERN.stats("fidxs");
+    }
+  }
   public static boolean intern_check() {
     int errs=0;
-    for( Type k : INTERN.keySet() ) {
+    for( Type k : INTERN.values() ) {
       Type v = INTERN.get(k);
       if( !k.intern_check0(v) ) {
         System.out.println("INTERN_CHECK FAIL: "+k._uid+":"+k+" vs "+v._uid+":"+v);
@@ -209,7 +268,7 @@ public class Type<T extends Type<T>> implements Cloneable {
   boolean intern_check1() { return true; }
   // Debugging helper
   static Type intern_find(int uid) {
-    for( Type k : INTERN.keySet() )
+    for( Type k : INTERN.values() )
       if( k._uid==uid )
         return k;
     return null;
@@ -273,19 +332,22 @@ public class Type<T extends Type<T>> implements Cloneable {
       POOLS[t] = this;
     }
     <T extends Type> T malloc() {
-      if( _frees.isEmpty() ) { _malloc++; _clone--; return (T)_gold.clone(); }
-      else                   { _pool  ++; return (T)_frees.pop();  }
+      synchronized( INTERN ) {
+        if( _frees.isEmpty() ) { _malloc++; _clone--; return (T)_gold.clone(); }
+        else                   { _pool  ++; return (T)_frees.pop();  }
+      }
     }
-    <T extends Type> T free(T t1, T t2) {
+    <T extends Type> T free(T t1, T t2) { // Caller holds the INTERN lock
       _frees.push(t1);
       _free++;
       return t2;
     }
+    int mallocs() { return _malloc+_pool; }
   }
   @SuppressWarnings("unchecked")
   protected Type clone() {
     try {
-      POOLS[_type]._clone++;
+      synchronized( INTERN ) { POOLS[_type]._clone++; }
       Type t = (Type)super.clone();
       t._uid = _uid();
       t._dual = null;
@@ -348,23 +410,92 @@ public class Type<T extends Type<T>> implements Cloneable {
   T rdual() { assert _dual!=null; return _dual; }
 
   // ----------------------------------------------------------
-  // Memoize meet results
+  // Memoize meet results.  The memo is bounded: when full, a CLOCK sweep
+  // evicts the first entry not hit since the hand last passed it.  Meets are
+  // pure, so an eviction only costs a recompute later.  Types other than the
+  // permanent ones live in intern generations, and new_intern_generation()
+  // keeps only the entries whose inputs and result are all permanent types
+  // (Key.retain_perm); entries over older generations are dropped with them.
+  //
+  // Hits are lock-free and allocation-free: each thread probes with its own
+  // Key, and entries are never changed once published (except the CLOCK
+  // reference bit, where a lost update is harmless).  Misses build new types,
+  // and type construction is single-threaded (see INTERN), so misses
+  // serialize on the INTERN lock; puts happen under it as well.
+  public static final int MEET_CACHE_DEFAULT = 1<<16;
+  public static final ConcurrentAutoTable MEET_HITS = new ConcurrentAutoTable(); // Memo stats
+  public static final ConcurrentAutoTable MEET_MISSES = new ConcurrentAutoTable();
+  public static final ConcurrentAutoTable MEET_EVICTS = new ConcurrentAutoTable();
+  // Set the memo capacity, trading memory against meet latency.  Clears the
+  // memo and the stats.
+  public static void meet_cache_capacity( int cap ) {
+    assert cap > 0;
+    synchronized( INTERN ) {
+      Key.INTERN_MEET.clear();
+      Key.CLOCK = new Key[cap];
+      Key.HAND = Key.LEN = 0;
+    }
+    MEET_HITS.set(0);  MEET_MISSES.set(0);  MEET_EVICTS.set(0);
+  }
+  public static int meet_cache_size() { return Key.LEN; }
+  public static String meet_cache_stats() {
+    long hits = MEET_HITS.get(), probes = hits+MEET_MISSES.get();
+    return String.format("meet cache %d/%d, hits %d (%.1f%%), misses %d, evictions %d",
+                         Key.LEN,Key.CLOCK.length,hits,probes==0 ? 0.0 : 100.0*hits/probes,MEET_MISSES.get(),MEET_EVICTS.get());
+  }
+
   private static class Key {
-    static Key K = new Key(null,null);
-    static NonBlockingHashMap<Key,Type> INTERN_MEET = new NonBlockingHashMap<>();
-    Key(Type a, Type b) { _a=a; _b=b; }
-    Type _a, _b;
+    private static final ThreadLocal<Key> K = ThreadLocal.withInitial(() -> new Key(null,null,null));
+    // Not a NonBlockingHashMap: under constant evict/insert churn its table copy can fail to finish
+    static final ConcurrentHashMap<Key,Key> INTERN_MEET = new ConcurrentHashMap<>();
+    static Key[] CLOCK = new Key[MEET_CACHE_DEFAULT]; // All entries, in CLOCK order
+    static int HAND, LEN;       // CLOCK hand, and count of entries
+    Key(Type a, Type b, Type mt) { _a=a; _b=b; _mt=mt; }
+    Type _a, _b;                // Only changed in the per-thread probe
+    final Type _mt;             // Meet result
+    boolean _ref;               // Hit since the CLOCK hand last passed
     @Override public int hashCode() { return ((_a._hash<<17)|(_a._hash>>>15))^_b._hash; }
     @Override public boolean equals(Object o) { return _a==((Key)o)._a && _b==((Key)o)._b; }
     static Type get(Type a, Type b) {
-      K._a=a;
-      K._b=b;
-      return INTERN_MEET.get(K);
+      Key probe = K.get();
+      probe._a=a;
+      probe._b=b;
+      Key k = INTERN_MEET.get(probe);
+      probe._a=probe._b=null;   // Do not pin types in the probe
+      if( k==null ) { MEET_MISSES.increment(); return null; }
+      MEET_HITS.increment();
+      if( !k._ref ) k._ref = true; // Hits stay read-only once referenced
+      return k._mt;
     }
+    // Caller holds the INTERN lock
     static void put(Type a, Type b, Type mt) {
-      INTERN_MEET.put(new Key(a,b),mt);
-      // Uncomment to check hash quality.
-      //Util.hash_quality_check_per(INTERN_MEET);
+      Key k = new Key(a,b,mt);
+      if( INTERN_MEET.putIfAbsent(k,k) != null ) return; // Already put by a nested meet
+      if( LEN < CLOCK.length ) {
+        CLOCK[LEN++] = k;
+      } else {                  // Full; sweep for an entry not recently hit
+        Key old;
+        while( (old=CLOCK[HAND])._ref ) {
+          old._ref = false;
+          if( ++HAND==LEN ) HAND=0;
+        }
+        INTERN_MEET.remove(old);
+        MEET_EVICTS.increment();
+        CLOCK[HAND] = k;
+        if( ++HAND==LEN ) HAND=0;
+      }
+    }
+    // Keep only the entries over permanent types, compacting the CLOCK
+    static void retain_perm() {
+      int j=0;
+      for( int i=0; i<LEN; i++ ) {
+        Key k = CLOCK[i];
+        if( INTERN.perm(k._a) && INTERN.perm(k._b) && INTERN.perm(k._mt) ) CLOCK[j++] = k;
+        else INTERN_MEET.remove(k);
+      }
+      Arrays.fill(CLOCK,j,LEN,null);
+      LEN = j;
+      HAND = 0;
     }
     static void intern_meet_quality_check() {
       NonBlockingHashMapLong<Integer> hashs = new NonBlockingHashMapLong<>();
@@ -397,11 +528,14 @@ public class Type<T extends Type<T>> implements Cloneable {
     // Short-cut for seeing this meet before
     Type mt = Key.get(this,t);
     if( mt != null ) return mt;
+    synchronized( INTERN ) { return meet0(t); } // Type construction is single-threaded
+  }
 
+  private Type meet0( Type t ) {
     // "Triangulate" the matrix and cut in half the number of cases.
     // Reverse; xmeet 2nd arg is never "is_simple" and never equal to "this".
     // This meet ignores the _name field, and can return any-old name it wants.
-    mt = !is_simple() && t.is_simple() ? t.xmeet(this) : xmeet(t);
+    Type mt = !is_simple() && t.is_simple() ? t.xmeet(this) : xmeet(t);
 
     // Meet the names.  Subclasses basically ignore the names as they have
     // their own complicated meets to perform, so we meet them here for all.
@@ -571,31 +705,31 @@ public class Type<T extends Type<T>> implements Cloneable {
 
   // By design in meet, args are already flipped to order _type, which forces
   // symmetry for things with badly ordered _type fields.  The question is
-  // still interesting for other orders.
-  private boolean check_commute( Type t, Type mt ) {
-    if( t==this ) return true;
-    if( is_simple() && !t.is_simple() ) return true; // By design, flipped the only allowed order
-    Type mt2 = t.xmeet(this);   // Reverse args and try again
-
-    // Also reverse names.
-    Type nmt2 = t.xmt_name(this,mt2);
-
-    if( mt==nmt2 ) return true;
-    System.out.println("Meet not commutative: "+this+".meet("+t+")="+mt+",\n but "+t+".meet("+this+")="+nmt2);
-    return false;
+  // still interesting for other orders.  Null if commutative, else a report.
+  private String check_commute( Type t, Type mt ) {
+    if( t==this ) return null;
+    if( is_simple() && !t.is_simple() ) return null; // By design, flipped the only allowed order
+    Type nmt2;
+    synchronized( INTERN ) {    // Type construction is single-threaded
+      Type mt2 = t.xmeet(this); // Reverse args and try again
+      // Also reverse names.
+      nmt2 = t.xmt_name(this,mt2);
+    }
+    if( mt==nmt2 ) return null;
+    return "Meet not commutative: "+this+".meet("+t+")="+mt+",\n but "+t+".meet("+this+")="+nmt2;
   }
   // A & B = MT
   // Expect: ~A & ~MT == ~A
   // Expect: ~B & ~MT == ~B
-  private boolean check_symmetric( Type t, Type mt ) {
-    if( t==this ) return true;
+  private String check_symmetric( Type t, Type mt ) {
+    if( t==this ) return null;
     Type ta = mt._dual.meet(t._dual);
     Type tb = mt._dual.meet(  _dual);
-    if( ta==t._dual && tb==_dual ) return true;
-    System.err.print("("+this+" & "+t+")=="+mt+" but \n("+mt._dual+" & ");
-    if( ta!=t._dual ) System.err.println(t._dual+")=="+ta+" \nwhich is not "+t._dual);
-    else              System.err.println(  _dual+")=="+tb+" \nwhich is not "+  _dual);
-    return false;
+    if( ta==t._dual && tb==_dual ) return null;
+    String s = "("+this+" & "+t+")=="+mt+" but \n("+mt._dual+" & ";
+    return ta!=t._dual
+      ? s+t._dual+")=="+ta+" \nwhich is not "+t._dual
+      : s+  _dual+")=="+tb+" \nwhich is not "+  _dual;
   }
 
   public Type join( Type t ) { return dual().meet(t.dual()).dual(); }
@@ -663,51 +797,23 @@ public class Type<T extends Type<T>> implements Cloneable {
     }
   }
 
+  // Lattice properties over ALL_TYPES, checked by fork-join over the outer
+  // index.  Meet is safe from many threads: memo hits are lock-free, and
+  // misses serialize on the INTERN lock.
   static boolean check_startup() {
     Type[] ts = ALL_TYPES().asAry();
-
-    // Confirm commutative & complete
-    for( Type t0 : ts )
-      for( Type t1 : ts ) {
-        Type mt = t0.meet(t1);
-        assert t0.check_commute  (t1,mt);
-        assert t0.check_symmetric(t1,mt);
-      }
-
-    // Confirm associative
-    int errs=0;
-    for( Type t0 : ts )
-      for( Type t1 : ts )
-        for( Type t2 : ts ) {
-          Type t01   = t0 .meet(t1 );
-          Type t12   = t1 .meet(t2 );
-          Type t01_2 = t01.meet(t2 );
-          Type t0_12 = t0 .meet(t12);
-          if( t01_2 != t0_12 && errs++ < 10 )
-            System.err.println("("+t0+"&"+t1+") & "+t2+" == "+t0+" & ("+t1+" & "+t2+"); "+
-                               "("+t01      +") & "+t2+" == "+t0+" & ("+t12        +"); "+
-                               t01_2                  +" == "+t0_12);
-        }
-    assert errs==0 : "Found "+errs+" associative errors";
-
-
-    // Confirm symmetry.  If A isa B, then A.join(C) isa B.join(C)
-    for( Type t0 : ts )
-      for( Type t1 : ts ) {
-        if( t0.isa(t1) ) {
-          for( Type t2 : ts ) {
-            Type t02 = t0.join(t2);
-            Type t12 = t1.join(t2);
-            Type mt  = t02.meet(t12);
-            if( mt != t12 && errs++ < 10 ) {
-              System.err.println("("+t0+" ^ "+t2+") = "+t02+"; "+
-                                 "("+t1+" ^ "+t2+") = "+t12+"; "+
-                                 "their meet = "+mt+" which is not "+t12);
-            }
-          }
-        }
+    int ncpus = Runtime.getRuntime().availableProcessors();
+    // One cpu: the plain loops, without the task and pool overheads
+    ForkJoinPool pool = ncpus==1 ? null : new ForkJoinPool(ncpus);
+    try {
+      for( int prop=0; prop<PROPS.length; prop++ ) {
+        LatticeCheck chk = new LatticeCheck(ts,prop,0,ts.length);
+        LatticeErr err = pool==null ? chk.rows() : pool.invoke(chk);
+        assert err==null : err;
       }
-    assert errs==0 : "Found "+errs+" non-join-type errors";
+    } finally {
+      if( pool != null ) pool.shutdown();
+    }
 
     // Check scalar primitives; all are SCALARS and none sub-type each other.
     SCALAR_PRIMS = new Type[] { TypeInt.INT64, TypeFlt.FLT64, TypeMemPtr.OOP0, TypeFunPtr.GENERIC_FUNPTR, TypeRPC.ALL_CALL };
@@ -719,6 +825,106 @@ public class Type<T extends Type<T>> implements Cloneable {
     return true;
   }
 
+  // Lattice properties checked by check_startup, in order
+  private static final String[] PROPS = new String[]{"commute","symmetric","associative","non-join-type"};
+  // Failures of one property: the count, and the first in index order
+  static final class LatticeErr {
+    final String _prop;
+    final int _i, _j, _k;       // Offending ts[i],ts[j],ts[k]; k is -1 for a pair
+    final String _msg;
+    int _cnt;
+    LatticeErr( int prop, int i, int j, int k, String msg ) { _prop=PROPS[prop]; _i=i; _j=j; _k=k; _msg=msg; _cnt=1; }
+    boolean before( LatticeErr e ) { return _i!=e._i ? _i<e._i : (_j!=e._j ? _j<e._j : _k<e._k); }
+    // Combine two partial results; either may be null
+    static LatticeErr min( LatticeErr e0, LatticeErr e1 ) {
+      if( e0==null ) return e1;
+      if( e1==null ) return e0;
+      LatticeErr e = e0.before(e1) ? e0 : e1;
+      e._cnt = e0._cnt+e1._cnt;
+      return e;
+    }
+    @Override public String toString() {
+      return "Found "+_cnt+" "+_prop+" errors; first at ["+_i+","+_j+(_k<0 ? "" : ","+_k)+"]:\n"+_msg;
+    }
+  }
+  // Check one property over a range of the outer index, splitting the range
+  // in half until a chunk is small.  Rows are uneven (the join check only
+  // scans rows where ts[i] isa ts[j]), so chunks are kept small.
+  private static final class LatticeCheck extends RecursiveTask<LatticeErr> {
+    private static final int CHUNK = 4;
+    private final Type[] _ts;
+    private final int _prop, _lo, _hi;
+    LatticeCheck( Type[] ts, int prop, int lo, int hi ) { _ts=ts; _prop=prop; _lo=lo; _hi=hi; }
+    @Override protected LatticeErr compute() {
+      if( _hi-_lo > CHUNK ) {
+        int mid = (_lo+_hi)>>>1;
+        LatticeCheck lo = new LatticeCheck(_ts,_prop,_lo,mid);
+        lo.fork();
+        LatticeErr hi = new LatticeCheck(_ts,_prop,mid,_hi).compute();
+        return LatticeErr.min(lo.join(),hi);
+      }
+      return rows();
+    }
+    // All failures in the range, serially
+    LatticeErr rows() {
+      LatticeErr err = null;
+      for( int i=_lo; i<_hi; i++ )
+        err = LatticeErr.min(err,row(i));
+      return err;
+    }
+    // All failures in row i; the first found is the least
+    private LatticeErr row( int i ) {
+      Type[] ts = _ts;
+      Type t0 = ts[i];
+      LatticeErr err = null;
+      for( int j=0; j<ts.length; j++ ) {
+        Type t1 = ts[j];
+        switch( _prop ) {
+        case 0:                 // Confirm commutative & complete
+        case 1: {
+          Type mt = t0.meet(t1);
+          String msg = _prop==0 ? t0.check_commute(t1,mt) : t0.check_symmetric(t1,mt);
+          if( msg != null ) err = fail(err,i,j,-1,msg);
+          break;
+        }
+        case 2: {               // Confirm associative
+          Type t01 = t0.meet(t1);
+          for( int k=0; k<ts.length; k++ ) {
+            Type t2 = ts[k];
+            Type t12   = t1 .meet(t2 );
+            Type t01_2 = t01.meet(t2 );
+            Type t0_12 = t0 .meet(t12);
+            if( t01_2 != t0_12 )
+              err = fail(err,i,j,k,"("+t0+"&"+t1+") & "+t2+" == "+t0+" & ("+t1+" & "+t2+"); "+
+                                   "("+t01      +") & "+t2+" == "+t0+" & ("+t12        +"); "+
+                                   t01_2                  +" == "+t0_12);
+          }
+          break;
+        }
+        case 3:                 // Confirm symmetry.  If A isa B, then A.join(C) isa B.join(C)
+          if( t0.isa(t1) )
+            for( int k=0; k<ts.length; k++ ) {
+              Type t2 = ts[k];
+              Type t02 = t0.join(t2);
+              Type t12 = t1.join(t2);
+              Type mt  = t02.meet(t12);
+              if( mt != t12 )
+                err = fail(err,i,j,k,"("+t0+" ^ "+t2+") = "+t02+"; "+
+                                     "("+t1+" ^ "+t2+") = "+t12+"; "+
+                                     "their meet = "+mt+" which is not "+t12);
+            }
+          break;
+        default: throw com.cliffc.aa.AA.unimpl();
+        }
+      }
+      return err;
+    }
+    private LatticeErr fail( LatticeErr err, int i, int j, int k, String msg ) {
+      if( err != null ) { err._cnt++; return err; }
+      return new LatticeErr(_prop,i,j,k,msg);
+    }
+  }
+
   // True if value is above the centerline (no definite value, ambiguous)
   public boolean above_center() {
     switch( _type ) {
@@ -30,7 +30,8 @@ public class TypeFld extends Type<TypeFld> {
   }
 
   // Note: hash does not depend on field type, to support building cyclic TypeStructs.
-  @Override public int compute_hash() { return _fld.hashCode()+_access.hashCode()+_order; }
+  @Override public int compute_hash() { return hash(_fld,_access,_order); }
+  private static int hash( String fld, Access access, int order ) { return fld.hashCode()+access.hashCode()+order; }
   @Override public boolean equals( Object o ) {
     if( this==o ) return true;
     if( !(o instanceof TypeFld) ) return false;
@@ -60,7 +61,24 @@ public class TypeFld extends Type<TypeFld> {
   public static TypeFld malloc( String fld, Type t, int order ) { return malloc(fld,t,Access.Final,order); }
 
   public static TypeFld make( String fld, Type t, int order ) { return make(fld,t,Access.Final,order); }
-  public static TypeFld make( String fld, Type t, Access access, int order ) { return malloc(fld,t,access,order).hashcons_free(); }
+  public static TypeFld make( String fld, Type t, Access access, int order ) {
+    Key k = KEY.get();
+    TypeFld t2 = probe(k.set(fld,t,access,order));
+    k._t = null;                // Do not hold a Type past its generation
+    return t2 != null ? t2 : malloc(fld,t,access,order).hashcons_free();
+  }
+  // Per-thread stand-in, to probe the intern table without making a TypeFld
+  private static final ThreadLocal<Key> KEY = ThreadLocal.withInitial(Key::new);
+  private static class Key {
+    String _fld; Type _t; Access _access; int _order;
+    private Key set( String fld, Type t, Access access, int order ) { _fld=fld; _t=t; _access=access; _order=order; return this; }
+    @Override public int hashCode() { return hash(_fld,_access,_order); }
+    @Override public boolean equals( Object o ) {
+      if( !(o instanceof TypeFld) ) return false;
+      TypeFld t = (TypeFld)o;
+      return Util.eq(_fld,t._fld) && _t==t._t && _access==t._access && _order==t._order;
+    }
+  }
 
   // Some convenient default constructors
   private static final String[] ARGS = new String[]{"^","x","y","z"};
@@ -6,6 +6,7 @@ import com.cliffc.aa.util.IHashMap;
 /**
  * Class to make hashcons Type[].
  * Bug to change after interning.
+ * Each length has its own free list and table, under its own lock.
  */
 public class TypeFlds {
   /**
@@ -16,12 +17,13 @@ public class TypeFlds {
   /**
    * Make a TypeAry to handle Type[] of length 'len'
    */
-  private static TypeFlds tary( int len) {
+  private static synchronized TypeFlds tary( int len) {
     TypeFlds tary = TYPEARY.atX(len);
     return tary==null ? TYPEARY.setX(len,new TypeFlds(len)) : tary;
   }
 
-  private static final Key K = new Key(null,0);
+  // Per-thread probe, so lookups neither allocate nor race
+  private static final ThreadLocal<Key> K = ThreadLocal.withInitial(() -> new Key(null,0));
 
   /**
    * Wrapper to customize array.equals
@@ -56,9 +58,11 @@ public class TypeFlds {
   private TypeFlds( int len ) { _len=len; }
 
   private boolean check_(TypeFld[] ts) {
-    K._ts=ts;
-    K._hash = Key.hash(ts);
-    Key k2 = _intern.get(K);
+    Key k = K.get();
+    k._ts=ts;
+    k._hash = Key.hash(ts);
+    Key k2 = _intern.get(k);
+    k._ts=null;
     return k2._ts==ts;
   }
 
@@ -66,28 +70,53 @@ public class TypeFlds {
   /**
    * Return a free Type[]
    */
-  private TypeFld[] get() {
+  private synchronized TypeFld[] get() {
     if( _free.isEmpty() )
       _free.push(new TypeFld[_len]);
     return _free.pop();
   }
+  private synchronized void free_(TypeFld[] ts) { _free.push(ts); }
 
-  private TypeFld[] hash_cons_(TypeFld[] ts) {
-    K._ts=ts;
-    K._hash = Key.hash(ts);
-    Key k2 = _intern.get(K);
+  private synchronized TypeFld[] hash_cons_(TypeFld[] ts) {
+    Key k = K.get();
+    k._ts=ts;
+    k._hash = Key.hash(ts);
+    Key k2 = _intern.get(k);
+    k._ts=null;
     if( k2 != null ) {
       if( k2._ts!=ts ) _free.push(ts);
       return k2._ts;
     }
-    _intern.put(new Key(ts,K._hash));
+    Key k3 = _intern.put(new Key(ts,k._hash));
+    if( FROZEN ) _gen.push(k3);
     return ts;
   }
 
+  // Generations, following Type's: arrays interned once the permanent Types
+  // are made are per-generation.  A new generation drops them, and re-interns
+  // those still used by live TypeStructs.
+  private static boolean FROZEN;
+  private final Ary<Key> _gen = new Ary<>(new Key[1],0);
+  static void freeze() { FROZEN = true; }
+  static void new_generation( Iterable<Type> live ) {
+    for( TypeFlds tary : TYPEARY )
+      if( tary != null ) {
+        for( Key k : tary._gen ) tary._intern.remove(k);
+        tary._gen.clear();
+      }
+    for( Type t : live )
+      if( t instanceof TypeStruct ) {
+        TypeFld[] ts = ((TypeStruct)t).flds();
+        TypeFlds tary = tary(ts.length);
+        Key k = new Key(ts,Key.hash(ts));
+        if( tary._intern.get(k) == null ) tary._gen.push(tary._intern.put(k));
+      }
+  }
+
 
 
   public static TypeFld[] get(int len) { return tary(len).get(); }
-  public static void free(TypeFld[] ts) { tary(ts.length)._free.push(ts); }
+  public static void free(TypeFld[] ts) { tary(ts.length).free_(ts); }
   public static TypeFld[] hash_cons(TypeFld[] ts) { return tary(ts.length).hash_cons_(ts); }
   public static TypeFld[] ts(TypeFld t0) {
     TypeFlds t1 = tary(1);
@@ -27,8 +27,23 @@ public class TypeFlt extends Type<TypeFlt> {
   }
 
   static { new Pool(TFLT,new TypeFlt()); }
+  // Per-thread stand-in, to probe the intern table without making a TypeFlt
+  private static final ThreadLocal<Key> KEY = ThreadLocal.withInitial(Key::new);
+  private static class Key {
+    byte _x, _z;
+    double _con;
+    private Key set( int x, int z, double con ) { _x=(byte)x; _z=(byte)z; _con=con; return this; }
+    @Override public int hashCode() { return hash(TFLT,"")+_x+_z+(int)_con; }
+    @Override public boolean equals( Object o ) {
+      if( !(o instanceof TypeFlt) ) return false;
+      TypeFlt t2 = (TypeFlt)o;
+      return _x==t2._x && _z==t2._z && _con==t2._con && !t2.has_name();
+    }
+  }
   public static Type make( int x, int z, double con ) {
     if( x==0 && (double)((long)con)==con ) return TypeInt.con((long)con);
+    TypeFlt t2 = probe(KEY.get().set(x,z,con));
+    if( t2 != null ) return t2;
     TypeFlt t1 = POOLS[TFLT].malloc();
     return t1.init(x,z,con).hashcons_free();
   }
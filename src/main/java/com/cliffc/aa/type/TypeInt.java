@@ -28,8 +28,23 @@ public class TypeInt extends Type<TypeInt> {
   }
 
   static { new Pool(TINT,new TypeInt()); }
+  // Per-thread stand-in, to probe the intern table without making a TypeInt
+  private static final ThreadLocal<Key> KEY = ThreadLocal.withInitial(Key::new);
+  private static class Key {
+    byte _x, _z;
+    long _con;
+    private Key set( int x, int z, long con ) { _x=(byte)x; _z=(byte)z; _con=con; return this; }
+    @Override public int hashCode() { return hash(TINT,"")+_x+_z+(int)_con; }
+    @Override public boolean equals( Object o ) {
+      if( !(o instanceof TypeInt) ) return false;
+      TypeInt t2 = (TypeInt)o;
+      return _x==t2._x && _z==t2._z && _con==t2._con && !t2.has_name();
+    }
+  }
   public static TypeInt make( int x, int z, long con ) {
     if( Math.abs(x)==1 && z==1 && con==0) con=1; // not-null-bool is just a 1
+    TypeInt t2 = probe(KEY.get().set(x,z,con));
+    if( t2 != null ) return t2;
     TypeInt t1 = POOLS[TINT].malloc();
     return t1.init(x,z,con).hashcons_free();
   }
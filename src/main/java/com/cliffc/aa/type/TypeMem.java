@@ -5,6 +5,8 @@ import com.cliffc.aa.util.*;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static com.cliffc.aa.type.TypeFld.Access;
 
@@ -54,8 +56,9 @@ public class TypeMem extends Type<TypeMem> {
   // Mapping from alias#s to the current known alias state.  Slot#0 is reserved
   // for memory liveness; TypeMem is never a nil.  Slot#1 is the Parent-Of-All
   // aliases and is the default value.  Default values are replaced with null
-  // during canonicalization.
-  private TypeObj[] _pubs;
+  // during canonicalization.  Persistent, so a one-alias change shares all
+  // the rest with the prior memory.
+  private PVec<TypeObj> _pubs;
 
   // A cache of sharpened pointers.  Pointers get sharpened by looking up their
   // aliases in this memory (perhaps merging several aliases).  The process is
@@ -64,9 +67,48 @@ public class TypeMem extends Type<TypeMem> {
   // not part of the hash/equals checks.  Optional.  Lazily filled in.
   private HashMap<TypeMemPtr,TypeMemPtr> _sharp_cache;
 
-  private TypeMem init(TypeObj[] pubs) {
+  // Sharpened pointers, shared by all memories.  A pointer sharpens against
+  // just the aliases it reaches, so the key is the memory sliced to those
+  // (slice_reaching_aliases): memories differing only elsewhere, such as
+  // after a Store to an unrelated alias, share the entry.  Bounded; when full
+  // the least recently used entry is evicted.  Cleared at each new intern
+  // generation, so old memories can be reclaimed.
+  public static final int SHARP_CACHE_DEFAULT = 1<<12;
+  public static final ConcurrentAutoTable SHARP_HITS = new ConcurrentAutoTable(); // Cache stats
+  public static final ConcurrentAutoTable SHARP_MISSES = new ConcurrentAutoTable();
+  public static final ConcurrentAutoTable SHARP_EVICTS = new ConcurrentAutoTable();
+  private static int SHARP_CAP = SHARP_CACHE_DEFAULT;
+  private static final LinkedHashMap<SharpKey,TypeMemPtr> SHARPS = new LinkedHashMap<SharpKey,TypeMemPtr>(16,0.75f,true) {
+    @Override protected boolean removeEldestEntry( Map.Entry<SharpKey,TypeMemPtr> e ) {
+      if( size() <= SHARP_CAP ) return false;
+      SHARP_EVICTS.increment();
+      return true;
+    }
+  };
+  private static final class SharpKey {
+    final TypeMem _slice;       // Memory sliced to the aliases _dull reaches
+    final TypeMemPtr _dull;
+    SharpKey( TypeMem slice, TypeMemPtr dull ) { _slice=slice; _dull=dull; }
+    @Override public int hashCode() { return _slice._hash*31+_dull._hash; }
+    @Override public boolean equals( Object o ) { return _slice==((SharpKey)o)._slice && _dull==((SharpKey)o)._dull; }
+  }
+  // Set the shared cache capacity.  Clears the cache and the stats.
+  public static void sharp_cache_capacity( int cap ) {
+    assert cap > 0;
+    synchronized( SHARPS ) { SHARPS.clear(); SHARP_CAP = cap; }
+    SHARP_HITS.set(0);  SHARP_MISSES.set(0);  SHARP_EVICTS.set(0);
+  }
+  static void sharp_cache_clear() { synchronized( SHARPS ) { SHARPS.clear(); } }
+  public static int sharp_cache_size() { synchronized( SHARPS ) { return SHARPS.size(); } }
+  public static String sharp_cache_stats() {
+    long hits = SHARP_HITS.get(), probes = hits+SHARP_MISSES.get();
+    return String.format("sharpen cache %d/%d, hits %d (%.1f%%), misses %d, evictions %d",
+                         sharp_cache_size(),SHARP_CAP,hits,probes==0 ? 0.0 : 100.0*hits/probes,SHARP_MISSES.get(),SHARP_EVICTS.get());
+  }
+
+  private TypeMem init(PVec<TypeObj> pubs) {
     super.init(TMEM,"");
-    assert check(pubs);    // Caller has canonicalized arrays already
+    assert check(pubs.toArray(new TypeObj[pubs.len()])); // Caller has canonicalized arrays already
     _pubs = pubs;
     return this;
   }
@@ -85,29 +127,35 @@ public class TypeMem extends Type<TypeMem> {
     // "tight" - something in the last slot
     if( as[as.length-1] == null ) return false;
     // No dups of any parent
+    long m0 = mapped(as,0), m1 = mapped(as,1);
     for( int i=2; i<as.length; i++ )
-      if( as[i] != null )
-        for( int par = BitsAlias.TREE.parent(i); par!=0; par = BitsAlias.TREE.parent(par) )
-          if( as[par] != null ) {
-            if( as[par] == as[i] ) return false; // Dup of a parent
-            break;
-          }
+      if( as[i] != null ) {
+        int par = mapped_par(as,m0,m1,i);
+        if( par!=0 && as[par] == as[i] ) return false; // Dup of a parent
+      }
     return true;
   }
-  @Override int compute_hash() {
-    int sum=TMEM;
-    for( TypeObj obj : _pubs ) sum += obj==null ? 0 : obj._hash;
-    return sum;
-  }
+  // Mask of the aliases mapped in word w (0 or 1) of as, skipping slot 0
+  private static long mapped( TypeObj[] as, int w ) {
+    long m=0;
+    for( int i=Math.max(1,w<<6); i<Math.min(as.length,(w+1)<<6); i++ )
+      if( as[i] != null ) m |= 1L<<i;
+    return m;
+  }
+  // Nearest mapped proper parent of alias, or 0 if none.  Parents below 128
+  // come at once from the alias tree's ancestor masks; m0,m1 are the mapped
+  // aliases below 128.
+  private static int mapped_par( TypeObj[] as, long m0, long m1, int alias ) {
+    int par = BitsAlias.TREE.parent(alias);
+    for( ; par >= 128; par = BitsAlias.TREE.parent(par) )
+      if( as[par] != null ) return par;
+    return par==0 || as[par] != null ? par : BitsAlias.TREE.nearest(par,m0,m1);
+  }
+  @Override int compute_hash() { return TMEM+_pubs.hashCode(); }
   @Override public boolean equals( Object o ) {
     if( this==o ) return true;
     if( !(o instanceof TypeMem) ) return false;
-    TypeMem tf = (TypeMem)o;
-    if( _pubs .length != tf._pubs .length ) return false;
-    for( int i = 0; i< _pubs.length; i++ )
-      if( _pubs[i] != tf._pubs[i] ) // note '==' and NOT '.equals()'
-        return false;
-    return true;
+    return _pubs.equals(((TypeMem)o)._pubs); // Elements by '==' and NOT '.equals()'
   }
   // Never part of a cycle, so the normal check works
   @Override public boolean cycle_equals( Type o ) { return equals(o); }
@@ -118,21 +166,29 @@ public class TypeMem extends Type<TypeMem> {
     if( this== MEM ) return sb.p("[ mem ]");
     if( this==XMEM ) return sb.p("[~mem ]");
 
-    if( _pubs.length==1 )
-      return _pubs[0].str(sb.p('['),dups,mem,debug).p(']');
+    if( _pubs.len()==1 )
+      return _pubs.at(0).str(sb.p('['),dups,mem,debug).p(']');
 
-    if( _pubs[0]==TypeLive.DEAD ) sb.p('!');
-    else _pubs[0].str(sb,dups,mem,debug);
+    if( _pubs.at(0)==TypeLive.DEAD ) sb.p('!');
+    else _pubs.at(0).str(sb,dups,mem,debug);
 
     sb.p('[');
-    for( int i = 1; i< _pubs.length; i++ )
-      if( _pubs[i] != null )
-        _pubs[i].str(sb.p(i).p(':'),dups,mem,debug).p(",");
+    for( int i = _pubs.next(1); i != -1; i = _pubs.next(i+1) )
+      _pubs.at(i).str(sb.p(i).p(':'),dups,mem,debug).p(",");
     return sb.unchar().p(']');
   }
 
   // Alias-at.  Out of bounds or null uses the parent value.
-  public TypeObj at   (int alias) { return at(_pubs ,alias); }
+  public TypeObj at( int alias ) {
+    if( _pubs.len()==1 ) return _pubs.at(0).oob(TypeObj.ISUSED);
+    if( alias==0 ) return _pubs.at(1); // Either base memory, or assert
+    TypeObj obj;
+    while( (obj=_pubs.at(alias))==null ) {
+      alias = BitsAlias.TREE.parent(alias);
+      assert alias!=0;
+    }
+    return obj;
+  }
   static TypeObj at(TypeObj[] tos, int alias) { return tos.length==1 ? tos[0].oob(TypeObj.ISUSED): tos[at_idx(tos,alias)]; }
   // Alias-at index
   static int at_idx(TypeObj[]tos, int alias) {
@@ -144,23 +200,26 @@ public class TypeMem extends Type<TypeMem> {
       assert alias!=0;
     }
   }
-  //
-  public TypeObj[] alias2objs() { return _pubs; }
-  public int len() { return _pubs.length; }
+  // A copy of the mapping; null for aliases mapped by their parent
+  public TypeObj[] alias2objs() { return _pubs.toArray(new TypeObj[_pubs.len()]); }
+  public int len() { return _pubs.len(); }
+  // Mapped explicitly, not by a parent
+  public boolean is_mapped( int alias ) { return _pubs.at(alias)!=null; }
 
   // Return set of aliases.  Not even sure if this is well-defined.
   public BitsAlias aliases() {
     if( this== FULL ) return BitsAlias.NZERO;
     if( this==EMPTY ) return BitsAlias.EMPTY;
     BitsAlias bas = BitsAlias.EMPTY;
-    for( int i = 0; i< _pubs.length; i++ )
-      if( _pubs[i]!=null && !_pubs[i].above_center() )
+    for( int i = _pubs.next(0); i != -1; i = _pubs.next(i+1) )
+      if( !_pubs.at(i).above_center() )
         bas = bas.set(i);
     return bas;
   }
 
   static { new Pool(TMEM,new TypeMem()); }
-  private static TypeMem make(TypeObj[] pubs) {
+  private static TypeMem make(TypeObj[] pubs) { return make(PVec.make(pubs)); }
+  private static TypeMem make(PVec<TypeObj> pubs) {
     Pool P = POOLS[TMEM];
     TypeMem t1 = P.malloc();
     return t1.init(pubs).hashcons_free();
@@ -187,13 +246,15 @@ public class TypeMem extends Type<TypeMem> {
     }
     if( len <= 2 ) return as;
     // No dups of a parent
+    long m0 = mapped(as,0), m1 = mapped(as,1);
     for( int i=1; i<as.length; i++ )
-      if( as[i] != null )
-        for( int par = BitsAlias.TREE.parent(i); par!=0; par = BitsAlias.TREE.parent(par) )
-          if( as[par] != null ) {
-            if( as[par] == as[i] ) as[i] = null;
-            break;
-          }
+      if( as[i] != null ) {
+        int par = mapped_par(as,m0,m1,i);
+        if( par!=0 && as[par] == as[i] ) {
+          as[i] = null;
+          if( i < 64 ) m0 &= ~(1L<<i); else if( i < 128 ) m1 &= ~(1L<<i);
+        }
+      }
     // Remove trailing nulls; make the array "tight"
     while( as[len-1] == null ) len--;
     if( as.length!=len ) as = Arrays.copyOf(as,len);
@@ -262,17 +323,73 @@ public class TypeMem extends Type<TypeMem> {
 
   // All mapped memories remain, but each memory flips internally.
   @Override protected TypeMem xdual() {
-    TypeObj[] pubs = new TypeObj[_pubs.length];
-    for( int i = 0; i< _pubs.length; i++ )
-      if( _pubs[i] != null )
-        pubs[i] = (TypeObj) _pubs[i].dual();
-    return new TypeMem().init(pubs);
-  }
+    TypeObj[] pubs = alias2objs();
+    for( int i = 0; i< pubs.length; i++ )
+      if( pubs[i] != null )
+        pubs[i] = (TypeObj) pubs[i].dual();
+    return new TypeMem().init(PVec.make(pubs));
+  }
+  // Records the inputs to every xmeet; see BenchMemMeet.  Off unless run with
+  // -Daa.memtrace=true; TRACING is a static final, so when off the JIT folds
+  // the check away and xmeet pays nothing.
+  static final boolean TRACING = Boolean.getBoolean("aa.memtrace");
+  static final Ary<TypeMem> TRACE = TRACING ? new Ary<>(TypeMem.class) : null;
+
   @Override protected Type xmeet( Type t ) {
     if( t._type != TMEM ) return ALL;
     TypeMem tf = (TypeMem)t;
-    // Meet of default values, meet of element-by-element.
-    TypeObj[] as = _meet(_pubs,tf._pubs,false);
+    if( TRACING ) synchronized( TRACE ) { TRACE.push(this); TRACE.push(tf); }
+    return meet(tf,false);
+  }
+
+  // Meet of default values, meet of element-by-element.  Only aliases mapped
+  // differently in the two are met; the rest (most of them, after a single
+  // Store) keep their mapping, and subtrees shared by both are skipped whole.
+  // All the changes are gathered first, then applied in one batch.
+  TypeMem meet( TypeMem tf, boolean is_loop ) {
+    if( Math.min(_pubs.len(),tf._pubs.len())==1 )
+      return meet_flat(tf,is_loop); // Bare liveness
+    AryInt idxs = _pubs.diff(tf._pubs,new AryInt());
+    int len = idxs._len;
+    TypeObj[] objs = new TypeObj[len];
+    // Ascending, so parents are final before their kids compare against them
+    for( int i=0; i<len; i++ ) {
+      int alias = idxs._es[i];
+      if( alias==0 ) { objs[i] = (TypeObj)_pubs.at(0).meet(tf._pubs.at(0)); continue; }
+      TypeObj obj = _meet(at(alias),tf.at(alias),is_loop);
+      objs[i] = alias>1 && obj==par(alias,idxs,objs,i) ? null : obj;
+      dup_kids(alias,obj,tf,idxs);
+    }
+    if( idxs._len > len ) objs = Arrays.copyOf(objs,idxs._len); // Dup kids go to null
+    return make(_pubs.set(idxs,objs));
+  }
+  // Value of the nearest mapped parent, as met so far: the first i entries
+  // of idxs are the met aliases, ascending.
+  private TypeObj par( int alias, AryInt idxs, TypeObj[] objs, int i ) {
+    while( true ) {
+      alias = BitsAlias.TREE.parent(alias);
+      int x = Arrays.binarySearch(idxs._es,0,i,alias);
+      TypeObj obj = x >= 0 ? objs[x] : _pubs.at(alias);
+      if( obj != null ) return obj;
+    }
+  }
+  // Kids mapped the same in both, and duplicating obj (the value alias now
+  // hands down) are added to idxs to be nulled.  Unmapped kids hand obj down
+  // to theirs; kids mapped differently are met in their turn.
+  private void dup_kids( int alias, TypeObj obj, TypeMem tf, AryInt idxs ) {
+    int[] kids = BitsAlias.TREE.kids(alias);
+    if( kids==null ) return;
+    for( int i=1; i<kids[0]; i++ ) {
+      int kid = kids[i];
+      TypeObj k = _pubs.at(kid);
+      if( k != tf._pubs.at(kid) ) continue;
+      if( k==null ) { if( kid < _pubs.len() ) dup_kids(kid,obj,tf,idxs); }
+      else if( k==obj ) idxs.push(kid);
+    }
+  }
+  // Flat meet of the whole mappings, as arrays
+  TypeMem meet_flat( TypeMem tf, boolean is_loop ) {
+    TypeObj[] as = _meet(alias2objs(),tf.alias2objs(),is_loop);
     TypeObj[] tos = _make1(as);
     return tos==null ? DEAD : make(tos); // All things are dead, so dead
   }
@@ -301,11 +418,7 @@ public class TypeMem extends Type<TypeMem> {
   // MEET at a Loop; optimize no-final-updates on backedges.
   @Override public Type meet_loop(Type t2) {
     if( t2._type != TMEM ) return ALL;
-    TypeMem tf = (TypeMem)t2;
-    // Meet of default values, meet of element-by-element.
-    TypeObj[] as = _meet(_pubs,tf._pubs,true);
-    TypeObj[] tos = _make1(as);
-    return tos==null ? DEAD : make(tos); // All things are dead, so dead
+    return meet((TypeMem)t2,true);
   }
 
   // Any alias is not UNUSED?
@@ -329,16 +442,16 @@ public class TypeMem extends Type<TypeMem> {
       return oob(TypeObj.OBJ);
     if( this== FULL ) return TypeObj. OBJ;
     if( this==EMPTY ) return TypeObj.XOBJ;
-    return ld(_pubs,ptr._aliases);
+    return ld(ptr._aliases);
   }
-  private static TypeObj ld( TypeObj[] tos, BitsAlias aliases ) {
+  private TypeObj ld( BitsAlias aliases ) {
     boolean any = aliases.above_center();
     // Any alias, plus all of its children, are meet/joined.  This does a
     // tree-based scan on the inner loop.
     TypeObj obj1 = any ? TypeObj.ISUSED : TypeObj.UNUSED;
     for( int alias : aliases )
       for( int kid=alias; kid!=0; kid=BitsAlias.next_kid(alias,kid) ) {
-        TypeObj x = at(tos,kid);
+        TypeObj x = at(kid);
         obj1 = (TypeObj)(any ? obj1.join(x) : obj1.meet(x));
       }
     return obj1;
@@ -391,7 +504,7 @@ public class TypeMem extends Type<TypeMem> {
   // Slice memory by aliases; unnamed aliases are replaced with ~use.
   public TypeMem slice_reaching_aliases(BitsAlias aliases) {
     if( aliases==BitsAlias.FULL ) return this;
-    TypeObj[] tos = new TypeObj[Math.max(_pubs.length,aliases.max()+1)];
+    TypeObj[] tos = new TypeObj[Math.max(_pubs.len(),aliases.max()+1)];
     tos[1] = at(1);
     for( int i=2; i<tos.length; i++ )
       tos[i] = aliases.test_recur(i) ? at(i) : TypeObj.UNUSED;
@@ -401,15 +514,25 @@ public class TypeMem extends Type<TypeMem> {
   // Sharpen a dull pointer against this memory.
   public TypeMemPtr sharpen( TypeMemPtr dull ) {
     assert dull==dull.simple_ptr();
-    if( _sharp_cache != null ) { // Check the cache first
-      TypeMemPtr sharp = _sharp_cache.get(dull);
-      if( sharp != null ) return sharp;
-    }
+    TypeMemPtr sharp = sharp_get(dull); // Check this memory's cache first
+    if( sharp != null ) return sharp;
+    // Then the shared cache, by the slice of memory dull reaches
+    TypeMem slice = slice_reaching_aliases(all_reaching_aliases(dull._aliases));
+    SharpKey key = new SharpKey(slice,dull);
+    synchronized( SHARPS ) { sharp = SHARPS.get(key); }
+    if( sharp != null ) { SHARP_HITS.increment(); return sharput(dull,sharp); }
+    SHARP_MISSES.increment();
     // Switch to TypeStruct for building recursive structures.
-    return TypeStruct.sharpen(this,dull);
+    synchronized( INTERN ) {    // Cyclic type construction is single-threaded
+      sharp = slice.sharp_get(dull);
+      if( sharp == null ) sharp = TypeStruct.sharpen(slice,dull);
+    }
+    synchronized( SHARPS ) { SHARPS.put(key,sharp); }
+    return sharput(dull,sharp);
   }
-  TypeMemPtr sharp_get( TypeMemPtr tmp ) { return _sharp_cache==null ? null : _sharp_cache.get(tmp); }
-  TypeMemPtr sharput( TypeMemPtr dull, TypeMemPtr sharp ) {
+  // A TypeMem is shared by every thread using it, so its cache is synchronized
+  synchronized TypeMemPtr sharp_get( TypeMemPtr tmp ) { return _sharp_cache==null ? null : _sharp_cache.get(tmp); }
+  synchronized TypeMemPtr sharput( TypeMemPtr dull, TypeMemPtr sharp ) {
     assert dull.interned() && sharp.interned();
     if( _sharp_cache==null ) _sharp_cache = new HashMap<>();
     _sharp_cache.put(dull,sharp);
@@ -423,7 +546,7 @@ public class TypeMem extends Type<TypeMem> {
 
   // Widen (lose info), to make it suitable as the default memory.
   public TypeMem crush() {
-    TypeObj[] oops = _pubs.clone();
+    TypeObj[] oops = alias2objs();
     oops[0] = null;
     for( int i=1; i<oops.length; i++ )
       if( oops[i]!=null ) oops[i] = oops[i].crush();
@@ -433,51 +556,91 @@ public class TypeMem extends Type<TypeMem> {
   // Whole object Set at an alias.
   public TypeMem set( int alias, TypeObj obj ) {
     if( at(alias)==obj ) return this; // Shortcut
-    int max = Math.max(_pubs.length,alias+1);
-    TypeObj[] tos = Arrays.copyOf(_pubs,max);
-    tos[0] = null;
-    tos[alias] = obj;
-    return make0(tos);
+    return set0(alias,obj);
+  }
+  private TypeMem set0( int alias, TypeObj obj ) {
+    if( alias <= 1 || _pubs.len()==1 ) { // New default, or from bare liveness
+      TypeObj[] tos = Arrays.copyOf(alias2objs(),Math.max(_pubs.len(),alias+1));
+      tos[0] = null;
+      tos[alias] = obj;
+      return make0(tos);
+    }
+    // Path-copy just this alias, and any kids it now duplicates
+    PVec<TypeObj> pubs = _pubs.set(0,_pubs.at(1).oob(TypeLive.LIVE));
+    pubs = canon(pubs.set(alias,obj),alias);
+    return make(canon_kids(pubs,alias,obj));
+  }
+
+  // Canonical: null if a dup of the nearest mapped parent
+  private static PVec<TypeObj> canon( PVec<TypeObj> pubs, int alias ) {
+    TypeObj obj = pubs.at(alias), pobj;
+    if( obj==null || alias<=1 ) return pubs;
+    int par = alias;
+    do par = BitsAlias.TREE.parent(par); while( (pobj=pubs.at(par))==null );
+    return pobj==obj ? pubs.set(alias,null) : pubs;
+  }
+  // Null out kids duplicating obj, the value alias now hands down.  Mapped
+  // kids holding something else hand down their own value, and are done.
+  private static PVec<TypeObj> canon_kids( PVec<TypeObj> pubs, int alias, TypeObj obj ) {
+    int[] kids = BitsAlias.TREE.kids(alias);
+    if( kids==null ) return pubs;
+    for( int i=1; i<kids[0]; i++ ) {
+      int kid = kids[i];
+      if( kid >= pubs.len() ) continue; // Unmapped, as are its kids
+      TypeObj k = pubs.at(kid);
+      if( k==obj ) pubs = pubs.set(kid,null);
+      if( k==null || k==obj ) pubs = canon_kids(pubs,kid,obj);
+    }
+    return pubs;
   }
 
   // Whole object Store of a New at an alias.
   // Sets the private type.
   // Lifts/sets the public type, and meets fields.
   public TypeMem st_new( int alias, TypeObj obj ) {
-    TypeObj[] pubs  = _pubs ;
-    TypeObj pub  = at(pubs ,alias); // Current value for alias
-    if( pub==obj ) return this;     // Shortcut
-    (pubs = _st_new(_pubs,pubs,alias))[alias] = (TypeObj)pub.meet(obj);
-    pubs[0] = null;
-    return make0(pubs);
-  }
-  private static TypeObj[] _st_new( TypeObj[] base, TypeObj[] as, int alias ) {
-    return base==as ? Arrays.copyOf(base,Math.max(base.length,alias+1)) : as;
+    TypeObj pub = at(alias);    // Current value for alias
+    if( pub==obj ) return this; // Shortcut
+    return set0(alias,(TypeObj)pub.meet(obj));
   }
 
   // Field store into a conservative set of aliases.
   public TypeMem update( BitsAlias aliases, Access fin, String fld, Type val ) {
-    Ary<TypeObj> pubs  = new Ary<>(_pubs .clone());
-    for( int alias : aliases )
-      if( alias != 0 )
-        for( int kid=alias; kid != 0; kid=BitsAlias.next_kid(alias,kid) )
-          pubs.setX(kid,at(_pubs,kid).update(fin,fld,val)); // imprecise
-    return make(_make1(pubs.asAry()));
+    VBitSet kids = BitsAlias.TREE.plus_kids(aliases);
+    TypeObj[] objs = new TypeObj[kids.length()];
+    for( int kid = kids.nextSetBit(0); kid != -1; kid = kids.nextSetBit(kid+1) )
+      objs[kid] = at(kid).update(fin,fld,val); // imprecise
+    return update(kids,objs);
   }
 
   // Array store into a conservative set of aliases.
   public TypeMem update( BitsAlias aliases, TypeInt idx, Type val ) {
-    Ary<TypeObj> pubs  = new Ary<>(_pubs .clone());
-    for( int alias : aliases )
-      if( alias != 0 )
-        for( int kid=alias; kid != 0; kid=BitsAlias.next_kid(alias,kid) )
-          pubs.setX(kid,at(_pubs,kid).update(idx,val)); // imprecise
-    return make(_make1(pubs.asAry()));
+    VBitSet kids = BitsAlias.TREE.plus_kids(aliases);
+    TypeObj[] objs = new TypeObj[kids.length()];
+    for( int kid = kids.nextSetBit(0); kid != -1; kid = kids.nextSetBit(kid+1) )
+      objs[kid] = at(kid).update(idx,val); // imprecise
+    return update(kids,objs);
+  }
+
+  // Set the updated aliases, then canonicalize them; parents first, so each
+  // is compared against its final parent.  Other aliases are unchanged.
+  private TypeMem update( VBitSet kids, TypeObj[] objs ) {
+    if( _pubs.len()==1 ) {      // From bare liveness
+      TypeObj[] tos = Arrays.copyOf(alias2objs(),Math.max(1,objs.length));
+      for( int kid = kids.nextSetBit(0); kid != -1; kid = kids.nextSetBit(kid+1) )
+        tos[kid] = objs[kid];
+      return make(_make1(tos));
+    }
+    PVec<TypeObj> pubs = _pubs;
+    for( int kid = kids.nextSetBit(0); kid != -1; kid = kids.nextSetBit(kid+1) )
+      pubs = pubs.set(kid,objs[kid]);
+    for( int kid = kids.nextSetBit(0); kid != -1; kid = kids.nextSetBit(kid+1) )
+      pubs = canon(pubs,kid);
+    return make(pubs);
   }
 
   // Everything NOT in the 'escs' is flattened to UNUSED.
   public TypeMem remove_no_escapes( BitsAlias escs, String fld, Type live ) {
-    TypeObj[] tos = new TypeObj[Math.max(_pubs.length,escs.max()+1)];
+    TypeObj[] tos = new TypeObj[Math.max(_pubs.len(),escs.max()+1)];
     for( int i=1; i<tos.length; i++ )
       tos[i] = escs.test_recur(i) ? at(i).remove_other_flds(fld,live) : TypeObj.UNUSED;
     return make0(tos);
@@ -487,8 +650,8 @@ public class TypeMem extends Type<TypeMem> {
   public TypeMem remove(BitsAlias escs) {
     if( escs==BitsAlias.EMPTY ) return this;
     if( escs==BitsAlias.FULL  ) throw com.cliffc.aa.AA.unimpl(); // Shortcut
-    TypeObj[] tos = _pubs.clone();
-    for( int i = 1; i< _pubs.length; i++ )
+    TypeObj[] tos = alias2objs();
+    for( int i = 1; i< tos.length; i++ )
       if( escs.test(i) )
         tos[i] = TypeObj.UNUSED;
     return make0(tos);
@@ -496,7 +659,7 @@ public class TypeMem extends Type<TypeMem> {
 
   // Report back only those aliases that are also UNUSED
   public BitsAlias and_unused(BitsAlias escs) {
-    int len = Math.max(_pubs.length,escs.max()+1);
+    int len = Math.max(_pubs.len(),escs.max()+1);
     BitsAlias bs = BitsAlias.EMPTY;
     for( int i=1; i<len; i++ )
       if( at(i)==TypeObj.UNUSED && escs.test_recur(i) )
@@ -521,23 +684,23 @@ public class TypeMem extends Type<TypeMem> {
 
   public TypeMem flatten_fields() {
     TypeObj to, tof=null;
-    int i; for( i=1; i< _pubs.length; i++ ) {
-      if( (to = _pubs[i]) != null && (tof = to.flatten_fields())!=to )
+    int i; for( i=_pubs.next(1); i != -1; i=_pubs.next(i+1) ) {
+      if( (tof = (to = _pubs.at(i)).flatten_fields())!=to )
         break;
     }
-    if( i== _pubs.length ) return this;
+    if( i== -1 ) return this;
 
-    TypeObj[] tos = _pubs.clone();
+    TypeObj[] tos = alias2objs();
     tos[0] = null;
     tos[i++] = tof;
-    for( ; i< _pubs.length; i++ )
+    for( ; i< tos.length; i++ )
       if( tos[i] != null )
         tos[i] = tos[i].flatten_fields();
     return make0(tos);
   }
 
   @Override public TypeMem widen() {
-    TypeObj[] tos = _pubs.clone();
+    TypeObj[] tos = alias2objs();
     tos[0] = null;
     for( int i=1; i<tos.length; i++ )
       if( tos[i]!=null )
@@ -546,9 +709,11 @@ public class TypeMem extends Type<TypeMem> {
   }
 
   @Override public boolean above_center() {
-    for( TypeObj alias : _pubs )
-      if( alias != null && !alias.above_center() && !alias.is_con() )
+    for( int i = _pubs.next(0); i != -1; i = _pubs.next(i+1) ) {
+      TypeObj alias = _pubs.at(i);
+      if( !alias.above_center() && !alias.is_con() )
         return false;
+    }
     return true;
   }
   @Override public boolean may_be_con()   { return false;}
@@ -556,8 +721,8 @@ public class TypeMem extends Type<TypeMem> {
   @Override public boolean must_nil() { return false; } // never a nil
   @Override Type not_nil() { return this; }
 
-  public TypeLive live() { return (TypeLive)_pubs[0]; }
-  public boolean is_live() { return _pubs.length>1 || (live()!=TypeLive.DEAD && live()!=TypeLive.LIVE.dual()); }
-  public boolean basic_live() { return _pubs.length==1; }
+  public TypeLive live() { return (TypeLive)_pubs.at(0); }
+  public boolean is_live() { return _pubs.len()>1 || (live()!=TypeLive.DEAD && live()!=TypeLive.LIVE.dual()); }
+  public boolean basic_live() { return _pubs.len()==1; }
 
 }
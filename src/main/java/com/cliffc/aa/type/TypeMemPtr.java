@@ -283,10 +283,9 @@ public final class TypeMemPtr extends Type<TypeMemPtr> {
   // Make a Type, replacing all dull pointers from the matching types in mem.
   @Override public Type make_from(Type head, TypeMem mem, VBitSet visit) {
     if( this!=head ) {
-      TypeObj[] pubs = mem.alias2objs();
       boolean mapped=true;
       for( int alias : _aliases )
-        if( pubs[alias]==null )
+        if( !mem.is_mapped(alias) )
           { mapped=false; break; }
       if( mapped ) {
         TypeObj obj = mem.ld(this);
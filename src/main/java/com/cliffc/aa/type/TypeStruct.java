@@ -102,27 +102,29 @@ public class TypeStruct extends TypeObj<TypeStruct> {
     return cycle_equals(t);
   }
 
-  private static final Ary<TypeStruct> CYCLES = new Ary<>(new TypeStruct[0]);
-  private TypeStruct find_other() {
-    int idx = CYCLES.find(this);
-    return idx != -1 ? CYCLES.at(idx^1) : null;
+  // Pairs being compared, per-thread as lock-free intern lookups can compare
+  private static final ThreadLocal<Ary<TypeStruct>> CYCLES = ThreadLocal.withInitial(() -> new Ary<>(new TypeStruct[0]));
+  private TypeStruct find_other( Ary<TypeStruct> cycles ) {
+    int idx = cycles.find(this);
+    return idx != -1 ? cycles.at(idx^1) : null;
   }
   @Override public boolean cycle_equals( Type o ) {
     if( this==o ) return true;
     if( !(o instanceof TypeStruct) ) return false;
     TypeStruct t = (TypeStruct)o;
-    TypeStruct t2 = find_other();
+    Ary<TypeStruct> cycles = CYCLES.get();
+    TypeStruct t2 = find_other(cycles);
     if( t2 !=null ) return t2==t   ; // Already in cycle report equals or not
-    TypeStruct t3 = t.find_other();
+    TypeStruct t3 = t.find_other(cycles);
     if( t3 !=null ) return t3==this;// Already in cycle report equals or not
     int x = cmp(t);
     if( x != -1 ) return x == 1;
 
-    int len = CYCLES._len;
-    CYCLES.add(this).add(t);
+    int len = cycles._len;
+    cycles.add(this).add(t);
     boolean eq=cycle_equals0(t);
-    assert CYCLES._len==len+2;
-    CYCLES._len=len;
+    assert cycles._len==len+2;
+    cycles._len=len;
     return eq;
   }
   private boolean cycle_equals0( TypeStruct t ) {
@@ -335,8 +337,8 @@ public class TypeStruct extends TypeObj<TypeStruct> {
   // Called during class-init.
   private static class TPair {
     TypeStruct _ts0, _ts1;
-    private static TPair KEY = new TPair(null,null);
-    static TPair set(TypeStruct ts0, TypeStruct ts1) {KEY._ts0=ts0; KEY._ts1=ts1; return KEY; }
+    private static final ThreadLocal<TPair> KEY = ThreadLocal.withInitial(() -> new TPair(null,null));
+    static TPair set(TypeStruct ts0, TypeStruct ts1) { TPair k = KEY.get(); k._ts0=ts0; k._ts1=ts1; return k; }
     TPair(TypeStruct ts0, TypeStruct ts1) { _ts0=ts0; _ts1=ts1; }
     @Override public int hashCode() { return (_ts0.hashCode()<<17) | _ts1.hashCode(); }
     @Override public boolean equals(Object o) {
@@ -473,19 +475,19 @@ public class TypeStruct extends TypeObj<TypeStruct> {
   // This is for a struct that has grown 'too deep', and needs to be
   // approximated to avoid infinite growth.
   public  static final NonBlockingHashMapLong<Type> UF = new NonBlockingHashMapLong<>();
-  private static final IHashMap OLD2APX = new IHashMap();
   public TypeStruct approx( int cutoff, int alias ) {
     boolean shallow=true;
     for( TypeFld fld : _flds )
       if( fld._t._type == TMEMPTR ) { shallow=false; break; }
     if( shallow ) return this;  // Fast cutout for boring structs
-
+    synchronized( INTERN ) { return _approx(cutoff,alias); } // Cyclic type construction is single-threaded
+  }
+  private TypeStruct _approx( int cutoff, int alias ) {
     // Scan the old copy for elements that are too deep.
     // 'Meet' those into the clone at one layer up.
     RECURSIVE_MEET++;
     assert UF.isEmpty();
-    assert OLD2APX.isEmpty();
-    TypeStruct apx = ax_impl_struct( alias, true, cutoff, null, 0, this, this );
+    TypeStruct apx = new Approx(alias,cutoff).approx(this);
     // Remove any leftover internal duplication
     apx = shrink(apx.reachable(),apx);
     RECURSIVE_MEET--;
@@ -498,156 +500,263 @@ public class TypeStruct extends TypeObj<TypeStruct> {
       assert this.isa(rez);
     }
     UF.clear();
-    OLD2APX.clear();
     return rez;
   }
 
-  // Make a new TypeStruct which is the merge of the original TypeStruct with
-  // the too-deep parts merged into shallower parts.
-  private static TypeStruct ax_impl_struct( int alias, boolean isnews, int cutoff, Ary<TypeStruct> cutoffs, int d, TypeStruct dold, TypeStruct old ) {
-    assert old.interned();
-    // TODO: If past depth, never use OLD, forces maximal cloning for the
-    // last step, as the last step will be MEET with an arbitrary structure.
-    // Use alternative OLD past depth, to keep looping unrelated types
-    // folding up.  Otherwise unrelated types might expand endlessly.
-    TypeStruct nt = OLD2APX.get(old);
-    if( nt != null ) return ufind(nt);
-
-    if( isnews ) {            // Depth-increasing struct?
-      if( d==cutoff ) {       // Cannot increase depth any more
-        cutoffs.push(old);    // Save cutoff point for later MEET
-        return OLD2APX.get(dold); // Return last valid depth - forces cycle
-      } else {
-        assert cutoffs == null; // Approaching max depth, make a place to record cutoffs
-        if( d+1==cutoff ) cutoffs = new Ary<>(TypeStruct.class);
+  // One step of an approximation walk: an old type, its clone (or the new type
+  // being met into), and the next child to visit.  Frames are reused as the
+  // stack shrinks and grows.
+  private static final class Frame {
+    Type _old, _nt;
+    int _i, _n;                 // Next child; child count for meets
+    int _d;                     // Depth
+    TypeStruct _dold;           // Last TypeStruct seen at this depth
+    Ary<TypeStruct> _cutoffs;   // Too-deep structs, for the MEET at the depth limit
+    boolean _isnews;            // Depth-increasing struct
+    TypeFld _fld;               // Field being met into
+  }
+  private static final class Frames {
+    private Frame[] _fs = new Frame[4];
+    int _sp;
+    Frame push( Type old, Type nt ) {
+      if( _sp==_fs.length ) _fs = Arrays.copyOf(_fs,_sp<<1);
+      Frame f = _fs[_sp];
+      if( f==null ) f = _fs[_sp] = new Frame();
+      _sp++;
+      f._old = old;  f._nt = nt;  f._i = 0;
+      return f;
+    }
+    Frame top() { return _fs[_sp-1]; }
+    void pop() {                // Drop the references, so the frame holds nothing live
+      Frame f = _fs[--_sp];
+      f._old = f._nt = null;  f._dold = null;  f._cutoffs = null;  f._fld = null;
+    }
+  }
+
+  // The approximation engine, one per approx() call.  Both the walk over the
+  // old type and the MEETs of the too-deep parts run off explicit stacks, so
+  // a deep type costs heap and not Java stack.
+  private static final class Approx {
+    private final int _alias, _cutoff;
+    // Old types on the current walk path, to their clones.  Removed as the
+    // walk backs out: do not keep sharing the "tails".
+    private final IHashMap _old2apx = new IHashMap();
+    private final Frames _walk = new Frames(), _meet = new Frames();
+    private BitSetSparse _bs;   // Pairs met so far, per MEET
+    Approx( int alias, int cutoff ) { _alias = alias;  _cutoff = cutoff; }
+
+    // Make a new TypeStruct which is the merge of the original TypeStruct with
+    // the too-deep parts merged into shallower parts.
+    TypeStruct approx( TypeStruct old ) {
+      Type rez = struct(old,true,0,old,null);
+      while( _walk._sp > 0 ) {
+        Frame f = _walk.top();
+        if( rez != null ) set(f,rez); // A child is done: fill it in
+        Type kid = kid(f);
+        rez = kid==null ? exit(f) : enter(f,kid);
+      }
+      return (TypeStruct)rez;
+    }
+
+    // Next old child to approximate, or null if done
+    private static Type kid( Frame f ) {
+      switch( f._old._type ) {
+      case TMEMPTR: return f._i==0 ? ((TypeMemPtr)f._old)._obj  : null;
+      case TFUNPTR: return f._i==0 ? ((TypeFunPtr)f._old)._disp : null;
+      default:
+        TypeFld[] flds = ((TypeStruct)f._old)._flds;
+        for( ; f._i < flds.length; f._i++ ) {
+          Type t = flds[f._i]._t;
+          if( t._type == TMEMPTR || t._type == TFUNPTR ) {
+            f._fld = ((TypeStruct)f._nt)._flds[f._i];
+            return t;
+          }
+        }
+        return null;
       }
-      d++;              // Increase depth
-      dold = old;       // And this is the last TypeStruct seen at this depth
     }
-    // Clone the old, to make the approximation into
-    TypeStruct nts = (TypeStruct)old.clone();
-    nts._flds  = TypeFlds.clone(old._flds);
-    OLD2APX.put(old,nts);
-    for( int i=0; i<old._flds.length; i++ ) // Fill clone with approximation
-      if( old._flds[i]._t._type == TMEMPTR )
-        nts._flds[i].setX(ax_impl_ptr (alias,cutoff,cutoffs,d,dold,(TypeMemPtr)old._flds[i]._t));
-      else if( old._flds[i]._t._type == TFUNPTR )
-        nts._flds[i].setX(ax_impl_fptr(alias,cutoff,cutoffs,d,dold,(TypeFunPtr)old._flds[i]._t));
-    if( isnews && d==cutoff ) {
-      while( !cutoffs.isEmpty() ) { // At depth limit, meet with cutoff to make the approximation
-        Type mt = ax_meet(new BitSetSparse(), nts,cutoffs.pop());
-        assert mt==nts;
+    // Fill in the approximated child, and move past it
+    private static void set( Frame f, Type rez ) {
+      switch( f._old._type ) {
+      case TMEMPTR: ((TypeMemPtr)f._nt)._obj  = (TypeObj)rez; break;
+      case TFUNPTR: ((TypeFunPtr)f._nt)._disp = rez;          break;
+      default:      f._fld.setX(rez);                         break;
       }
+      f._i++;
     }
-    OLD2APX.put(old,null); // Do not keep sharing the "tails"
-    return nts;
-  }
 
-  private static TypeMemPtr ax_impl_ptr( int alias, int cutoff, Ary<TypeStruct> cutoffs, int d, TypeStruct dold, TypeMemPtr old ) {
-    assert old.interned();
-    // TODO: If past depth, never use OLD, forces maximal cloning for the
-    // last step, as the last step will be MEET with an arbitrary structure.
-    // Use alternative OLD past depth, to keep looping unrelated types
-    // folding up.  Otherwise unrelated types might expand endlessly.
-    TypeMemPtr nt = OLD2APX.get(old);
-    if( nt != null ) return ufind(nt);
-
-    // Walk internal structure, meeting into the approximation
-    TypeMemPtr nmp = (TypeMemPtr)old.clone();
-    OLD2APX.put(old,nmp);
-    if( old._obj instanceof TypeStruct )
-      nmp._obj = ax_impl_struct(alias,nmp._aliases.test(alias),cutoff,cutoffs,d,dold,(TypeStruct)old._obj);
-    else if( old._obj == TypeObj.XOBJ || old._obj==nmp._obj )
-      ; // No change to nmp._obj
-    else if( old._obj == TypeObj.OBJ )
-      nmp._obj = TypeObj.OBJ;   // Falls hard
-    else
-      throw com.cliffc.aa.AA.unimpl();
-    OLD2APX.put(old,null);      // Do not keep sharing the "tails"
-    return nmp;
-  }
-  private static Type ax_impl_fptr( int alias, int cutoff, Ary<TypeStruct> cutoffs, int d, TypeStruct dold, TypeFunPtr old ) {
-    assert old.interned();
-    // TODO: If past depth, never use OLD, forces maximal cloning for the
-    // last step, as the last step will be MEET with an arbitrary structure.
-    // Use alternative OLD past depth, to keep looping unrelated types
-    // folding up.  Otherwise unrelated types might expand endlessly.
-    TypeFunPtr nt = OLD2APX.get(old);
-    if( nt != null ) return ufind(nt);
-    if( old._disp==Type.ANY )
-       return old; // no ufind because its old
-
-    // Walk internal structure, meeting into the approximation
-    TypeFunPtr nmp = (TypeFunPtr)old.clone();
-    OLD2APX.put(old,nmp);
-    nmp._disp = ax_impl_ptr(alias,cutoff,cutoffs,d,dold,(TypeMemPtr)old._disp);
-    OLD2APX.put(old,null);      // Do not keep sharing the "tails"
-    return nmp;
-  }
+    // Approximate old, a child of f.  Returns the approximation, or null
+    // having pushed a frame to fill it in.
+    private Type enter( Frame f, Type old ) {
+      switch( old._type ) {
+      case TSTRUCT: return struct((TypeStruct)old,((TypeMemPtr)f._nt)._aliases.test(_alias),f._d,f._dold,f._cutoffs);
+      case TMEMPTR: return ptr ((TypeMemPtr)old,f);
+      case TFUNPTR: return fptr((TypeFunPtr)old,f);
+      default: throw unimpl();
+      }
+    }
+
+    private Type struct( TypeStruct old, boolean isnews, int d, TypeStruct dold, Ary<TypeStruct> cutoffs ) {
+      assert old.interned();
+      // TODO: If past depth, never use OLD, forces maximal cloning for the
+      // last step, as the last step will be MEET with an arbitrary structure.
+      // Use alternative OLD past depth, to keep looping unrelated types
+      // folding up.  Otherwise unrelated types might expand endlessly.
+      TypeStruct nt = _old2apx.get(old);
+      if( nt != null ) return ufind(nt);
+
+      if( isnews ) {            // Depth-increasing struct?
+        if( d==_cutoff ) {      // Cannot increase depth any more
+          cutoffs.push(old);    // Save cutoff point for later MEET
+          return _old2apx.get(dold); // Return last valid depth - forces cycle
+        } else {
+          assert cutoffs == null; // Approaching max depth, make a place to record cutoffs
+          if( d+1==_cutoff ) cutoffs = new Ary<>(TypeStruct.class);
+        }
+        d++;              // Increase depth
+        dold = old;       // And this is the last TypeStruct seen at this depth
+      }
+      // Clone the old, to make the approximation into
+      TypeStruct nts = (TypeStruct)old.clone();
+      nts._flds  = TypeFlds.clone(old._flds);
+      walk(old,nts,d,dold,cutoffs)._isnews = isnews;
+      return null;
+    }
+
+    private Type ptr( TypeMemPtr old, Frame f ) {
+      assert old.interned();
+      TypeMemPtr nt = _old2apx.get(old);
+      if( nt != null ) return ufind(nt);
+      // Walk internal structure, meeting into the approximation
+      TypeMemPtr nmp = (TypeMemPtr)old.clone();
+      if( !(old._obj instanceof TypeStruct) )
+        return nmp;             // No change to nmp._obj
+      walk(old,nmp,f._d,f._dold,f._cutoffs);
+      return null;
+    }
+
+    private Type fptr( TypeFunPtr old, Frame f ) {
+      assert old.interned();
+      TypeFunPtr nt = _old2apx.get(old);
+      if( nt != null ) return ufind(nt);
+      if( old._disp==Type.ANY )
+        return old; // no ufind because its old
+      // Walk internal structure, meeting into the approximation
+      walk(old,old.clone(),f._d,f._dold,f._cutoffs);
+      return null;
+    }
 
-  // Update-in-place 'meet' of pre-allocated new types.  Walk all the old type
-  // and meet into the corresponding new type.  Changes the internal edges of
-  // the new types, so their hash remains undefined.
-  private static Type ax_meet( BitSetSparse bs, Type nt, Type old ) {
-    assert old.interned();
-    if( nt._hash != 0 && nt.interned() ) return nt.meet(old);
-    assert nt._hash==0;         // Not definable yet
-    nt = ufind(nt);
-    if( nt == old ) return old;
-    if( bs.tset(nt._uid,old._uid) ) return nt; // Been there, done that
-
-    // TODO: Make a non-recursive "meet into".
-    // Meet old into nt
-    switch( nt._type ) {
-    case TSCALAR: break; // Nothing to meet
-    case TFUNPTR: {
-      TypeFunPtr nptr = (TypeFunPtr)nt;
-      if( old == Type.NIL || old == Type.XNIL ) return nptr.ax_meet_nil(old);
-      if( old == Type.SCALAR )
-        return union(nt,old); // Result is a scalar, which changes the structure of the new types.
-      if( old == Type.XSCALAR ) break; // Result is the nt unchanged
-      if( !(old instanceof TypeFunPtr) ) throw AA.unimpl(); // Not a xscalar, not a funptr, probably falls to scalar
-      TypeFunPtr optr = (TypeFunPtr)old;
-      nptr._fidxs = nptr._fidxs.meet(optr._fidxs);
-      // While structs normally meet, function args *join*, although the return still meets.
-      nptr._disp = ax_meet(bs,nptr._disp,optr._disp);
-      break;
+    // Push a walk frame for old and its clone nt
+    private Frame walk( Type old, Type nt, int d, TypeStruct dold, Ary<TypeStruct> cutoffs ) {
+      _old2apx.put(old,nt);
+      Frame f = _walk.push(old,nt);
+      f._d = d;  f._dold = dold;  f._cutoffs = cutoffs;  f._isnews = false;
+      return f;
     }
-    case TMEMPTR: {
-      TypeMemPtr nptr = (TypeMemPtr)nt;
-      if( old == Type.NIL || old == Type.XNIL ) return nptr.ax_meet_nil(old);
-      if( old == Type.SCALAR )
-        return union(nt,old); // Result is a scalar, which changes the structure of the new types.
-      if( old == Type.XSCALAR || old == Type.ANY ) break; // Result is the nt unchanged
-      if( !(old instanceof TypeMemPtr) ) throw AA.unimpl(); // Not a xscalar, not a memptr, probably falls to scalar
-      TypeMemPtr optr = (TypeMemPtr)old;
-      nptr._aliases = nptr._aliases.meet(optr._aliases);
-      nptr._obj = (TypeObj)ax_meet(bs,nptr._obj,optr._obj);
-      break;
+
+    // Done with all of f's children
+    private Type exit( Frame f ) {
+      Type nt = f._nt;
+      if( f._isnews && f._d==_cutoff ) {
+        while( !f._cutoffs.isEmpty() ) { // At depth limit, meet with cutoff to make the approximation
+          Type mt = meet(nt,f._cutoffs.pop());
+          assert mt==nt;
+        }
+      }
+      _old2apx.remove(f._old);  // Do not keep sharing the "tails"
+      _walk.pop();
+      return nt;
+    }
+
+    // Update-in-place 'meet' of pre-allocated new types.  Walk all the old type
+    // and meet into the corresponding new type.  Changes the internal edges of
+    // the new types, so their hash remains undefined.
+    private Type meet( Type nt, Type old ) {
+      _bs = new BitSetSparse();
+      Type rez = meet1(nt,old);
+      while( _meet._sp > 0 ) {
+        Frame f = _meet.top();
+        if( rez != null ) {     // A child is done: fill it in, and move past it
+          switch( f._nt._type ) {
+          case TFUNPTR: ((TypeFunPtr)f._nt)._disp = rez;          break;
+          case TMEMPTR: ((TypeMemPtr)f._nt)._obj  = (TypeObj)rez; break;
+          default:      f._fld.setX(rez);                         break;
+          }
+          f._i++;
+        }
+        if( f._i == f._n ) { rez = f._nt;  _meet.pop();  continue; }
+        switch( f._nt._type ) { // Meet the next child
+        case TFUNPTR: rez = meet1(((TypeFunPtr)f._nt)._disp,((TypeFunPtr)f._old)._disp); break;
+        case TMEMPTR: rez = meet1(((TypeMemPtr)f._nt)._obj ,((TypeMemPtr)f._old)._obj ); break;
+        default:
+          f._fld = ((TypeStruct)f._nt)._flds[f._i];
+          rez = meet1(f._fld._t,((TypeStruct)f._old)._flds[f._i]._t);
+          break;
+        }
+      }
+      return rez;
     }
-    case TSTRUCT:
-      if( old == TypeObj. OBJ || old == TypeObj.ISUSED ) { nt = old; break; }
-      if( old == TypeObj.XOBJ || old == TypeObj.UNUSED ) break; // No changes, take nt as it is
-      if( !(old instanceof TypeStruct) ) throw AA.unimpl();
-      TypeStruct ots = (TypeStruct)old, nts = (TypeStruct)nt;
-      // Compute a new target length.  Generally size is unchanged, but will
-      // change if mixing structs.
-      int len = ots.len(nts);     // New length
-      if( len != nts._flds.length ) // Grow/shrink as needed
-        nts._flds = Arrays.copyOf(nts._flds, len);
-      int clen = Math.min(len,ots._flds.length);
-      // Meet all the non-recursive parts
-      nts._any &= ots._any ;  nts._use = nts._any;
-      nts._open|= ots._open;
-      for( int i=0; i<clen; i++ )
-        nts._flds[i].cmeet(ots._flds[i]);
-      // Now recursively do all common fields
-      for( int i=0; i<clen; i++ )
-        nts._flds[i].setX(ax_meet(bs,nts._flds[i]._t,ots._flds[i]._t));
-      break;
-    default: throw AA.unimpl();
+
+    // Meet the non-recursive parts of old into nt.  Returns the result, or
+    // null having pushed a frame to meet the children.
+    private Type meet1( Type nt, Type old ) {
+      assert old.interned();
+      if( nt._hash != 0 && nt.interned() ) return nt.meet(old);
+      assert nt._hash==0;         // Not definable yet
+      nt = ufind(nt);
+      if( nt == old ) return old;
+      if( _bs.tset(nt._uid,old._uid) ) return nt; // Been there, done that
+
+      // Meet old into nt
+      switch( nt._type ) {
+      case TSCALAR: return nt;  // Nothing to meet
+      case TFUNPTR: {
+        TypeFunPtr nptr = (TypeFunPtr)nt;
+        if( old == Type.NIL || old == Type.XNIL ) return nptr.ax_meet_nil(old);
+        if( old == Type.SCALAR )
+          return union(nt,old); // Result is a scalar, which changes the structure of the new types.
+        if( old == Type.XSCALAR ) return nt; // Result is the nt unchanged
+        if( !(old instanceof TypeFunPtr) ) throw AA.unimpl(); // Not a xscalar, not a funptr, probably falls to scalar
+        TypeFunPtr optr = (TypeFunPtr)old;
+        nptr._fidxs = nptr._fidxs.meet(optr._fidxs);
+        // While structs normally meet, function args *join*, although the return still meets.
+        _meet.push(old,nt)._n = 1; // Then meet the display
+        return null;
+      }
+      case TMEMPTR: {
+        TypeMemPtr nptr = (TypeMemPtr)nt;
+        if( old == Type.NIL || old == Type.XNIL ) return nptr.ax_meet_nil(old);
+        if( old == Type.SCALAR )
+          return union(nt,old); // Result is a scalar, which changes the structure of the new types.
+        if( old == Type.XSCALAR || old == Type.ANY ) return nt; // Result is the nt unchanged
+        if( !(old instanceof TypeMemPtr) ) throw AA.unimpl(); // Not a xscalar, not a memptr, probably falls to scalar
+        TypeMemPtr optr = (TypeMemPtr)old;
+        nptr._aliases = nptr._aliases.meet(optr._aliases);
+        _meet.push(old,nt)._n = 1; // Then meet the target
+        return null;
+      }
+      case TSTRUCT: {
+        if( old == TypeObj. OBJ || old == TypeObj.ISUSED ) return old;
+        if( old == TypeObj.XOBJ || old == TypeObj.UNUSED ) return nt; // No changes, take nt as it is
+        if( !(old instanceof TypeStruct) ) throw AA.unimpl();
+        TypeStruct ots = (TypeStruct)old, nts = (TypeStruct)nt;
+        // Compute a new target length.  Generally size is unchanged, but will
+        // change if mixing structs.
+        int len = ots.len(nts);     // New length
+        if( len != nts._flds.length ) // Grow/shrink as needed
+          nts._flds = Arrays.copyOf(nts._flds, len);
+        int clen = Math.min(len,ots._flds.length);
+        // Meet all the non-recursive parts
+        nts._any &= ots._any ;  nts._use = nts._any;
+        nts._open|= ots._open;
+        for( int i=0; i<clen; i++ )
+          nts._flds[i].cmeet(ots._flds[i]);
+        _meet.push(old,nt)._n = clen; // Then meet all common fields
+        return null;
+      }
+      default: throw AA.unimpl();
+      }
     }
-    return nt;
   }
 
   // Walk an existing, not-interned, structure.  Stop at any interned leaves.
@@ -778,24 +887,25 @@ public class TypeStruct extends TypeObj<TypeStruct> {
   // Optionally keep interned Types.  List is pre-order.
   public Ary<Type> reachable() {
     Ary<Type> work = new Ary<>(new Type[1],0);
-    push(work, this);
+    Set<Type> visit = Collections.newSetFromMap(new IdentityHashMap<>());
+    push(work, visit, this);
     int idx=0;
     while( idx < work._len ) {
       Type t = work.at(idx++);
       switch( t._type ) {
-      case TMEMPTR:  push(work, ((TypeMemPtr)t)._obj ); break;
-      case TFUNPTR:  push(work, ((TypeFunPtr)t)._disp); break;
-      case TFLD   :  push(work, ((TypeFld   )t)._t   ); break;
-      case TSTRUCT:  for( TypeFld tf : ((TypeStruct)t)._flds ) push(work, tf); break;
+      case TMEMPTR:  push(work, visit, ((TypeMemPtr)t)._obj ); break;
+      case TFUNPTR:  push(work, visit, ((TypeFunPtr)t)._disp); break;
+      case TFLD   :  push(work, visit, ((TypeFld   )t)._t   ); break;
+      case TSTRUCT:  for( TypeFld tf : ((TypeStruct)t)._flds ) push(work, visit, tf); break;
       default: break;
       }
     }
     return work;
   }
-  private void push( Ary<Type> work, Type t ) {
+  private void push( Ary<Type> work, Set<Type> visit, Type t ) {
     int y = t._type;
     if( (y==TMEMPTR || y==TFUNPTR || y==TSTRUCT || y==TFLD) &&
-        (t._hash == 0 || !t.interned()) && work.find(t)==-1 )
+        (t._hash == 0 || !t.interned()) && visit.add(t) )
       work.push(t);
   }
 
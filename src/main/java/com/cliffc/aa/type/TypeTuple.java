@@ -25,16 +25,17 @@ public class TypeTuple extends Type<TypeTuple> {
    * If visit is not null, children need to be recursively visited.
    */
   private static int rot(int x, int k) { return (x<<k) | (x>>(32-k)); }
+  @Override public int compute_hash( ) { return hash(_any,_ts); }
   @SuppressWarnings("fallthrough")
-  @Override public int compute_hash( ) {
-    int hash = TTUPLE+(_any?0:1);
+  private static int hash( boolean any, Type[] ts ) {
+    int hash = TTUPLE+(any?0:1);
     /* Copied from http://burtleburtle.net/bob/c/lookup3.c */
     int i,a,b,c;
-    a = b = c = 0xdeadbeef + (_ts.length<<2) + hash;
-    for( i=0; i+2<_ts.length; i+=3 ) {
-      a += _ts[i+0]._hash;
-      b += _ts[i+1]._hash;
-      c += _ts[i+2]._hash;
+    a = b = c = 0xdeadbeef + (ts.length<<2) + hash;
+    for( i=0; i+2<ts.length; i+=3 ) {
+      a += ts[i+0]._hash;
+      b += ts[i+1]._hash;
+      c += ts[i+2]._hash;
       a -= c;  a ^= rot(c, 4);  c += b;
       b -= a;  b ^= rot(a, 6);  a += c;
       c -= b;  c ^= rot(b, 8);  b += a;
@@ -42,10 +43,10 @@ public class TypeTuple extends Type<TypeTuple> {
       b -= a;  b ^= rot(a,19);  a += c;
       c -= b;  c ^= rot(b, 4);  b += a;
     }
-    switch(_ts.length-i) {
-    case 3: c += _ts[i+2]._hash;
-    case 2: b += _ts[i+1]._hash;
-    case 1: a += _ts[i+0]._hash;
+    switch(ts.length-i) {
+    case 3: c += ts[i+2]._hash;
+    case 2: b += ts[i+1]._hash;
+    case 1: a += ts[i+0]._hash;
       c ^= b; c -= rot(b,14);
       a ^= c; a -= rot(c,11);
       b ^= a; b -= rot(a,25);
@@ -83,7 +84,24 @@ public class TypeTuple extends Type<TypeTuple> {
   }
 
   static { new Pool(TTUPLE,new TypeTuple()); }
+  // Per-thread stand-in, to probe the intern table without making a TypeTuple
+  private static final ThreadLocal<Key> KEY = ThreadLocal.withInitial(Key::new);
+  private static class Key {
+    boolean _any; Type[] _ts; int _hash;
+    private Key set( boolean any, Type[] ts ) { _any=any; _ts=ts; _hash=hash(any,ts); return this; }
+    @Override public int hashCode() { return _hash; }
+    @Override public boolean equals( Object o ) {
+      if( !(o instanceof TypeTuple) ) return false;
+      TypeTuple t = (TypeTuple)o;
+      return _any==t._any && _hash == t._hash && Types.eq(_ts,t._ts);
+    }
+  }
+  // Array is interned
   private static TypeTuple make( boolean any, Type[] ts ) {
+    Key k = KEY.get();
+    TypeTuple t2 = probe(k.set(any,ts));
+    k._ts = null;               // Do not hold the array past its generation
+    if( t2 != null ) return t2;
     TypeTuple t1 = POOLS[TTUPLE].malloc();
     return t1.init(any,ts).hashcons_free();
   }
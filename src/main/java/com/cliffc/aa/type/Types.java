@@ -7,18 +7,20 @@ import java.util.Arrays;
 /**
  * Class to make hashcons Type[].
  * Bug to change after interning.
+ * Each length has its own free list and table, under its own lock.
  */
 public class Types {
   // Lazy expanding list of TypeAry customed to handle various Type[] lengths.
   private static final Ary<Types> TYPEARY = new Ary<>(new Types[1],0);
 
   // Make a TypeAry to handle Type[] of length 'len'
-  private static Types tary( int len) {
+  private static synchronized Types tary( int len) {
     Types tary = TYPEARY.atX(len);
     return tary==null ? TYPEARY.setX(len,new Types(len)) : tary;
   }
   
-  private static final Key K = new Key(null,0);
+  // Per-thread probe, so lookups neither allocate nor race
+  private static final ThreadLocal<Key> K = ThreadLocal.withInitial(() -> new Key(null,0));
 
   // Wrapper to customize array.equals
   private static class Key {
@@ -57,34 +59,61 @@ public class Types {
     return true;
   }
   private boolean check_(Type[] ts) {
-    K._ts=ts;
-    K._hash = Key.hash(ts);
-    Key k2 = _intern.get(K);
+    Key k = K.get();
+    k._ts=ts;
+    k._hash = Key.hash(ts);
+    Key k2 = _intern.get(k);
+    k._ts=null;
     return k2._ts==ts;
   }
 
 
   // Return a free Type[]
-  private Type[] get() {
+  private synchronized Type[] get() {
     if( _free.isEmpty() )
       _free.push(new Type[_len]);
     return _free.pop();
   }
+  private synchronized void free_(Type[] ts) { _free.push(ts); }
 
-  private Type[] hash_cons_(Type[] ts) {
-    K._ts=ts;
-    K._hash = Key.hash(ts);
-    Key k2 = _intern.get(K);
+  private synchronized Type[] hash_cons_(Type[] ts) {
+    Key k = K.get();
+    k._ts=ts;
+    k._hash = Key.hash(ts);
+    Key k2 = _intern.get(k);
+    k._ts=null;
     if( k2 != null ) {
       if( k2._ts!=ts ) _free.push(ts);
       return k2._ts;
     }
-    _intern.put(new Key(ts,K._hash));
+    Key k3 = _intern.put(new Key(ts,k._hash));
+    if( FROZEN ) _gen.push(k3);
     return ts;
   }
 
+  // Generations, following Type's: arrays interned once the permanent Types
+  // are made are per-generation.  A new generation drops them, and re-interns
+  // those still used by live TypeTuples.
+  private static boolean FROZEN;
+  private final Ary<Key> _gen = new Ary<>(new Key[1],0);
+  static void freeze() { FROZEN = true; }
+  static void new_generation( Iterable<Type> live ) {
+    for( Types tary : TYPEARY )
+      if( tary != null ) {
+        for( Key k : tary._gen ) tary._intern.remove(k);
+        tary._gen.clear();
+      }
+    for( Type t : live )
+      if( t instanceof TypeTuple ) {
+        Type[] ts = ((TypeTuple)t)._ts;
+        Types tary = tary(ts.length);
+        Key k = new Key(ts,Key.hash(ts));
+        if( tary._intern.get(k) == null ) tary._gen.push(tary._intern.put(k));
+      }
+  }
+
   public static Type[] get(int len) { return tary(len).check().get(); }
-  public static void free(Type[] ts) { tary(ts.length)._free.push(ts); }
+  public static void free(Type[] ts) { tary(ts.length).free_(ts); }
   public static Type[] hash_cons(Type[] ts) { return tary(ts.length).check().hash_cons_(ts); }
   // Why is this API not auto-interning?  Because it is used to make cyclic
   // types in TypeStructs, which means the fields will change over
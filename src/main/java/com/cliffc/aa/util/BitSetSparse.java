@@ -1,11 +1,41 @@
 package com.cliffc.aa.util;
 
+import java.util.Arrays;
+
 /**
- * Simple sparse bitset, with a test-and-set.
+ * Simple sparse bitset, with a test-and-set.  Open addressing over a plain
+ * long[]; not thread-safe, as each user walks with its own.
  */
 public class BitSetSparse {
-  NonBlockingHashMapLong<String> _set = new NonBlockingHashMapLong<>();
+  private long[] _keys = new long[16]; // Zero is an empty slot
+  private int _cnt;                    // Keys in the table
+  private boolean _zero;               // Bit 0 is set
   public boolean tset(int b0, int b1) { return tset(((long)b0<<32)|b1); }
-  public boolean tset(long b) { return _set.put(b,"")!=null; }
-  public void clear() { _set.clear(); }
+  public boolean tset(long b) {
+    if( b==0 ) { boolean z = _zero; _zero = true; return z; }
+    int mask = _keys.length-1;
+    for( int i = hash(b)&mask; ; i = (i+1)&mask ) {
+      long k = _keys[i];
+      if( k==b ) return true;
+      if( k==0 ) {
+        _keys[i] = b;
+        if( ++_cnt<<1 > _keys.length ) grow(); // Keep at most half full
+        return false;
+      }
+    }
+  }
+  public void clear() { Arrays.fill(_keys,0); _cnt=0; _zero=false; }
+
+  private static int hash( long b ) { return (int)((b*0x9E3779B97F4A7C15L)>>>32); }
+  private void grow() {
+    long[] old = _keys;
+    _keys = new long[old.length<<1];
+    int mask = _keys.length-1;
+    for( long k : old )
+      if( k != 0 ) {
+        int i = hash(k)&mask;
+        while( _keys[i] != 0 ) i = (i+1)&mask;
+        _keys[i] = k;
+      }
+  }
 }
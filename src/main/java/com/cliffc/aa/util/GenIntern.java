@@ -0,0 +1,171 @@
+package com.cliffc.aa.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generational intern table: a hash-cons keyed on the values' own equals and
+ * hashCode, with entries kept by generation.
+ *
+ * Entries put before freeze() are permanent.  Later entries join the current
+ * generation, held strongly.  new_generation() demotes the whole current
+ * generation to the older generations, which are held weakly: entries nothing
+ * else refers to are reclaimed by the GC, but anything still in use stays
+ * interned, so interned values remain unique and pointer-equality stays valid
+ * for them.  An older entry found again by get() is promoted back into the
+ * current generation.
+ *
+ * Lookups and put_if_absent() are safe from many threads at once, and agree
+ * on a single interned value.  freeze() and new_generation() are not: they run
+ * between compiles, with nothing else interning.
+ */
+public class GenIntern<V> {
+  private final ConcurrentHashMap<V,V> _perm = new ConcurrentHashMap<>(); // Permanent
+  private final ConcurrentHashMap<V,V> _gen  = new ConcurrentHashMap<>(); // Current generation
+  private final ConcurrentHashMap<Entry,Entry> _old = new ConcurrentHashMap<>(); // Older generations, weakly
+  private final ReferenceQueue<V> _queue = new ReferenceQueue<>(); // Reclaimed older entries
+  private final ThreadLocal<Probe> _probe = ThreadLocal.withInitial(Probe::new);
+  private boolean _frozen;      // Permanent entries all put
+  private int _genum;           // Current generation number
+  private long _reclaimed;      // Count of older entries reclaimed
+
+  // Lookup, or null if not interned
+  public V get( V v ) { return probe(v); }
+  // Lookup by a stand-in key, or null if not interned.  The key hashes as the
+  // value it stands for, and its equals() is true against that value; so a
+  // caller can probe without first building the value.
+  public V probe( Object k ) {
+    V v2 = _perm.get(k);
+    if( v2 != null ) return v2;
+    if( (v2 = _gen.get(k)) != null ) return v2;
+    if( _old.isEmpty() ) return null;
+    Probe p = _probe.get();
+    Entry e = _old.get(p.set(k));
+    p._k = null;
+    if( e == null || (v2 = e.val()) == null ) return null;
+    // In use again: promote to the current generation.  Put before removing,
+    // so a racing lookup finds it in one or the other.
+    V v3 = _gen.putIfAbsent(v2,v2);
+    _old.remove(e);
+    return v3==null ? v2 : v3;
+  }
+  public void put( V v ) { (_frozen ? _gen : _perm).put(v,v); }
+  // The interned value equal to v: an existing one, else v itself, now
+  // interned.  Racing threads all get the same value back.
+  public V put_if_absent( V v ) {
+    V v2 = get(v);
+    if( v2 != null ) return v2;
+    v2 = (_frozen ? _gen : _perm).putIfAbsent(v,v);
+    return v2==null ? v : v2;
+  }
+  public V remove( V v ) {
+    V v2 = _gen.remove(v);
+    if( v2 == null ) v2 = _perm.remove(v);
+    if( v2 == null && (v2 = get(v)) != null ) _gen.remove(v2);
+    return v2;
+  }
+  public int size() { return _perm.size()+_gen.size()+_old.size(); }
+  public boolean perm( V v ) { return _perm.get(v)==v; }
+
+  // All live values
+  public Iterable<V> values() {
+    ArrayList<V> vs = new ArrayList<>(_perm.keySet());
+    vs.addAll(_gen.keySet());
+    for( Entry e : _old.keySet() ) { V v = e.val(); if( v != null ) vs.add(v); }
+    return vs;
+  }
+  // Older values, not yet reclaimed
+  public Iterable<V> old_values() {
+    ArrayList<V> vs = new ArrayList<>();
+    for( Entry e : _old.keySet() ) { V v = e.val(); if( v != null ) vs.add(v); }
+    return vs;
+  }
+
+  // End of the permanent entries; later puts start the first generation
+  public void freeze() { _frozen = true; }
+  public boolean frozen() { return _frozen; }
+
+  // Demote the current generation, wholesale, to the weakly held older generations
+  public void new_generation() {
+    assert _frozen;
+    for( V v : _gen.keySet() ) {
+      Weak w = new Weak(v,_genum);
+      _old.put(w,w);
+    }
+    _gen.clear();
+    _genum++;
+    expunge();
+  }
+  private void expunge() {
+    for( Object r; (r = _queue.poll()) != null; ) {
+      _old.remove(((Ref<?>)r)._entry);
+      _reclaimed++;
+    }
+  }
+
+  // Sizes: permanent, then by generation from the current one back, then the
+  // count reclaimed.  Older entries are live, or awaiting the next GC.
+  public long[] sizes() {
+    expunge();
+    long[] szs = new long[_genum+3];
+    szs[0] = _perm.size();
+    szs[1] = _gen.size();
+    int max = 1;
+    for( Entry e : _old.keySet() ) {
+      int idx = 1+_genum-((Weak)e)._gen;
+      if( e.val() != null ) { szs[idx]++; max = Math.max(max,idx); }
+    }
+    szs[max+1] = _reclaimed;
+    return Arrays.copyOf(szs,max+2);
+  }
+  public String stats( String name ) {
+    long[] szs = sizes();
+    SB sb = new SB().p(name).p(": perm ").p(szs[0]).p(", gen#").p(_genum).p(' ').p(szs[1]);
+    if( szs.length > 3 ) {
+      sb.p(", older");
+      for( int i=2; i<szs.length-1; i++ ) sb.p(' ').p(szs[i]);
+    }
+    return sb.p(", reclaimed ").p(szs[szs.length-1]).toString();
+  }
+
+  // Older-generation entries and their probe compare by value
+  private abstract class Entry {
+    int _hash;
+    abstract V val();
+    @Override public int hashCode() { return _hash; }
+    @SuppressWarnings("unchecked")
+    @Override public boolean equals( Object o ) {
+      if( this==o ) return true;
+      if( !(o instanceof GenIntern.Entry) ) return false;
+      V v0 = val(), v1 = ((Entry)o).val();
+      return v0 != null && v1 != null && v0.equals(v1);
+    }
+  }
+  private final class Weak extends Entry {
+    final WeakReference<V> _ref;
+    final int _gen;
+    Weak( V v, int gen ) { _ref = new Ref<>(v,_queue,this); _hash = v.hashCode(); _gen = gen; }
+    @Override V val() { return _ref.get(); }
+  }
+  // Reference back to its entry, so a reclaimed entry can be removed
+  private static final class Ref<V> extends WeakReference<V> {
+    final Object _entry;
+    Ref( V v, ReferenceQueue<V> q, Object entry ) { super(v,q); _entry = entry; }
+  }
+  // Compares its key against the entry's value, so works for a stand-in key.
+  // Never put in the table.
+  private final class Probe extends Entry {
+    Object _k;
+    Probe set( Object k ) { _k = k; _hash = k.hashCode(); return this; }
+    @Override V val() { return null; }
+    @SuppressWarnings("unchecked")
+    @Override public boolean equals( Object o ) {
+      if( !(o instanceof GenIntern.Entry) ) return false;
+      V v1 = ((Entry)o).val();
+      return v1 != null && _k.equals(v1);
+    }
+  }
+}
@@ -0,0 +1,240 @@
+package com.cliffc.aa.util;
+
+import java.util.Arrays;
+
+/**
+ * Persistent sparse vector: an immutable radix tree with 32-way fanout.
+ * at() and set() are O(log32 n); set() copies only the path down to the
+ * changed element and shares everything else with the prior version.
+ *
+ * The shape is canonical: the length is "tight" (the last element is
+ * non-null), the tree is no deeper than the length needs, and all-null
+ * subtrees are null.  Equal contents have equal shapes, so equals() skips
+ * any subtree shared between two versions.  Elements compare by identity,
+ * as for interned values.  The hash sums each element's hash mixed with its
+ * index, so set() keeps it up to date in O(1), and permutations of the same
+ * elements rarely collide.
+ */
+public final class PVec<E> {
+  private static final int BITS = 5, WIDTH = 1<<BITS, MASK = WIDTH-1;
+  private static final PVec<?> EMPTY = new PVec<>(null,0,0,0);
+
+  private final Object[] _root; // Interior nodes hold subtrees, leaves hold elements
+  private final int _shift;     // Index bits below the root's
+  private final int _len;       // Tight length
+  private final int _hash;      // Sum of the element hashes, mixed by index
+
+  private PVec( Object[] root, int shift, int len, int hash ) { _root=root; _shift=shift; _len=len; _hash=hash; }
+
+  @SuppressWarnings("unchecked")
+  public static <E> PVec<E> empty() { return (PVec<E>)EMPTY; }
+  // From an array; trailing nulls are dropped
+  public static <E> PVec<E> make( E[] es ) {
+    int len = es.length;
+    while( len > 0 && es[len-1]==null ) len--;
+    if( len==0 ) return empty();
+    int hash=0;
+    for( int i=0; i<len; i++ ) hash += hash(i,es[i]);
+    int shift = shift(len);
+    return new PVec<>(build(es,0,len,shift),shift,len,hash);
+  }
+  private static Object[] build( Object[] es, int base, int len, int s ) {
+    Object[] n = null;
+    for( int k=0; k<WIDTH; k++ ) {
+      int lo = base+(k<<s);
+      if( lo >= len ) break;
+      Object x = s==0 ? es[lo] : build(es,lo,len,s-BITS);
+      if( x != null ) { if( n==null ) n = new Object[WIDTH]; n[k] = x; }
+    }
+    return n;
+  }
+  // Smallest shift holding len elements
+  private static int shift( int len ) {
+    int s=0;
+    while( len > (WIDTH<<s) ) s += BITS;
+    return s;
+  }
+
+  public int len() { return _len; }
+
+  // Element at i, or null if out of bounds
+  @SuppressWarnings("unchecked")
+  public E at( int i ) {
+    if( i < 0 || i >= _len ) return null;
+    Object[] n = _root;
+    for( int s=_shift; s>0; s-=BITS )
+      if( (n = (Object[])n[(i>>>s)&MASK]) == null )
+        return null;
+    return (E)n[i&MASK];
+  }
+
+  // Next index at or after i with a non-null element, or -1.  Skips null
+  // subtrees whole.
+  public int next( int i ) { return i >= _len ? -1 : next(_root,_shift,0,Math.max(i,0)); }
+  private static int next( Object[] n, int s, int base, int i ) {
+    if( n==null ) return -1;
+    for( int k = i<=base ? 0 : (i-base)>>>s; k<WIDTH; k++ ) {
+      int lo = base+(k<<s);
+      if( s==0 ) { if( n[k] != null ) return lo; }
+      else {
+        int x = next((Object[])n[k],s-BITS,lo,i);
+        if( x != -1 ) return x;
+      }
+    }
+    return -1;
+  }
+
+  // Indices where this and v differ, ascending, appended to idxs.  Subtrees
+  // the two versions share are skipped whole.
+  public AryInt diff( PVec<E> v, AryInt idxs ) {
+    int shift = Math.max(_shift,v._shift);
+    diff(lift(_root,_shift,shift),lift(v._root,v._shift,shift),shift,0,idxs);
+    return idxs;
+  }
+  private static void diff( Object[] a, Object[] b, int s, int base, AryInt idxs ) {
+    if( a==b ) return;
+    for( int k=0; k<WIDTH; k++ ) {
+      Object x = a==null ? null : a[k], y = b==null ? null : b[k];
+      if( x==y ) continue;
+      if( s==0 ) idxs.push(base+k);
+      else diff((Object[])x,(Object[])y,s-BITS,base+(k<<s),idxs);
+    }
+  }
+  // View a shallower root at a deeper shift
+  private static Object[] lift( Object[] n, int s, int shift ) {
+    for( ; s<shift && n!=null; s+=BITS ) { Object[] up = new Object[WIDTH];  up[0] = n;  n = up; }
+    return n;
+  }
+
+  // New version with element i replaced; setting null past the end is a
+  // no-op, and clearing the last element trims the length.
+  public PVec<E> set( int i, E e ) {
+    E old = at(i);
+    if( old==e ) return this;
+    int hash = _hash - hash(i,old) + hash(i,e);
+    if( e != null ) {
+      int len = Math.max(_len,i+1), shift = shift(len);
+      Object[] root = _root;
+      for( int s=_shift; s<shift && root!=null; s+=BITS ) {
+        Object[] up = new Object[WIDTH];  up[0] = root;  root = up;
+      }
+      return new PVec<>(put(root,shift,i,e),shift,len,hash);
+    }
+    Object[] root = put(_root,_shift,i,null);
+    if( i < _len-1 ) return new PVec<>(root,_shift,_len,hash);
+    int len = last(root,_shift,0)+1, shift = shift(len);
+    if( len==0 ) return empty();
+    for( int s=_shift; s>shift; s-=BITS ) root = (Object[])root[0];
+    return new PVec<>(root,shift,len,hash);
+  }
+  // New version with each es[j] set at idxs[j]; later entries win.  Each
+  // node on the changed paths is copied once.
+  public PVec<E> set( AryInt idxs, E[] es ) {
+    int n = idxs._len;
+    long[] ps = new long[n];    // Sort by index, then by entry
+    for( int j=0; j<n; j++ ) ps[j] = ((long)idxs._es[j]<<32)|j;
+    Arrays.sort(ps);
+    int[] is = new int[n];
+    Object[] vs = new Object[n];
+    int m=0;
+    for( long p : ps ) {
+      if( m>0 && is[m-1]==(int)(p>>>32) ) m--; // Later entry wins
+      is[m] = (int)(p>>>32);  vs[m++] = es[(int)p];
+    }
+    int hash=_hash, max=-1;
+    boolean chg=false, trim=false;
+    for( int j=0; j<m; j++ ) {
+      Object old = at(is[j]);
+      if( old==vs[j] ) continue;
+      chg = true;
+      hash += hash(is[j],vs[j]) - hash(is[j],old);
+      if( vs[j] != null ) max = Math.max(max,is[j]);
+      else trim |= is[j]==_len-1;
+    }
+    if( !chg ) return this;
+    int len = Math.max(_len,max+1), shift = shift(len);
+    while( m>0 && is[m-1] >= len ) m--; // Nulls past the end are no-ops
+    Object[] root = put(lift(_root,_shift,shift),shift,is,vs,0,m);
+    if( trim && max < _len-1 ) {  // Cleared the last element
+      len = last(root,shift,0)+1;
+      if( len==0 ) return empty();
+      int shift2 = shift(len);
+      for( ; shift>shift2; shift-=BITS ) root = (Object[])root[0];
+    }
+    return new PVec<>(root,shift,len,hash);
+  }
+  // Path-copy down to the sorted is[lo,hi), all below n; returns null for an
+  // all-null result
+  private static Object[] put( Object[] n, int s, int[] is, Object[] vs, int lo, int hi ) {
+    Object[] c = n==null ? new Object[WIDTH] : n.clone();
+    for( int j=lo; j<hi; ) {
+      int k = (is[j]>>>s)&MASK, j2 = j+1;
+      while( j2<hi && ((is[j2]>>>s)&MASK)==k ) j2++;
+      c[k] = s==0 ? vs[j] : put((Object[])c[k],s-BITS,is,vs,j,j2);
+      j = j2;
+    }
+    for( Object x : c ) if( x != null ) return c;
+    return null;
+  }
+  // Path-copy down to i; returns null for an all-null result
+  private static Object[] put( Object[] n, int s, int i, Object e ) {
+    if( n==null && e==null ) return null;
+    Object[] c = n==null ? new Object[WIDTH] : n.clone();
+    int k = (i>>>s)&MASK;
+    c[k] = s==0 ? e : put((Object[])c[k],s-BITS,i,e);
+    if( e != null ) return c;
+    for( Object x : c ) if( x != null ) return c;
+    return null;
+  }
+  // Index of the last non-null element, or -1
+  private static int last( Object[] n, int s, int base ) {
+    if( n==null ) return -1;
+    for( int k=MASK; k>=0; k-- )
+      if( n[k] != null )
+        return s==0 ? base+k : last((Object[])n[k],s-BITS,base+(k<<s));
+    return -1;
+  }
+
+  // Elements copied out, into es if it is long enough.
+  public E[] toArray( E[] es ) {
+    if( es.length < _len ) es = Arrays.copyOf(es,_len);
+    fill(_root,_shift,0,es);
+    return es;
+  }
+  private static void fill( Object[] n, int s, int base, Object[] es ) {
+    if( n==null ) return;
+    for( int k=0; k<WIDTH; k++ ) {
+      int lo = base+(k<<s);
+      if( lo >= es.length ) break;
+      if( s==0 ) es[lo] = n[k];
+      else fill((Object[])n[k],s-BITS,lo,es);
+    }
+  }
+
+  private static int hash( int i, Object e ) {
+    if( e==null ) return 0;
+    int h = e.hashCode() + i*0x9E3779B9;
+    h ^= h>>>16;  h *= 0x85EBCA6B;
+    return h ^ (h>>>13);
+  }
+  @Override public int hashCode() { return _hash; }
+  @Override public boolean equals( Object o ) {
+    if( this==o ) return true;
+    if( !(o instanceof PVec) ) return false;
+    PVec<?> v = (PVec<?>)o;
+    return _len==v._len && _hash==v._hash && eq(_root,v._root,_shift);
+  }
+  private static boolean eq( Object[] a, Object[] b, int s ) {
+    if( a==b ) return true;
+    if( a==null || b==null ) return false;
+    for( int k=0; k<WIDTH; k++ )
+      if( s==0 ? a[k]!=b[k] : !eq((Object[])a[k],(Object[])b[k],s-BITS) )
+        return false;
+    return true;
+  }
+  @Override public String toString() {
+    SB sb = new SB().p('[');
+    for( int i=0; i<_len; i++ ) sb.p(String.valueOf(at(i))).p(',');
+    return (_len==0 ? sb : sb.unchar()).p(']').toString();
+  }
+}
@@ -1,11 +1,17 @@
 package com.cliffc.aa;
 
+import com.cliffc.aa.node.FunNode;
+import com.cliffc.aa.node.InlinePolicy;
 import com.cliffc.aa.type.*;
 import com.cliffc.aa.util.SB;
 import com.cliffc.aa.util.VBitSet;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.concurrent.*;
 import java.util.function.Function;
 
 import static com.cliffc.aa.type.TypeFld.Access;
@@ -835,6 +841,182 @@ HashTable = {@{
    */
 
 
+  // Compiles in separate contexts share no state, so can run at once.
+  @Test public void testCompileContexts() throws Exception {
+    String[] progs = {"1+2*3", "fact = { x -> x <= 1 ? x : x*fact(x-1) }; fact(3)", "x=2; y=x+1; x*y"};
+    String[] exps  = {"7", "6", "6"};
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      ArrayList<Callable<Void>> work = new ArrayList<>();
+      for( int t=0; t<2; t++ )
+        work.add(() -> {
+          try( CompileContext cc = new CompileContext() ) {
+            for( int r=0; r<3; r++ )
+              for( int i=0; i<progs.length; i++ ) {
+                String[] rez = cc.go("args",progs[i]);
+                assertNull(rez[1]);
+                assertEquals(exps[i],rez[0]);
+              }
+            assertTrue(cc.go("args","y*y")[1].startsWith("args:1:Unknown ref 'y'"));
+          }
+          return null;
+        });
+      for( Future<Void> f : pool.invokeAll(work) )
+        f.get();                // Rethrows any failure in the thread
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  // Optimizer instrumentation is fixed at class load, so switch it on in a
+  // private copy of the compiler; the report goes to System.err.
+  @Test public void testOpStats() {
+    PrintStream err = System.err;
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    System.setProperty("aa.opstats","true");
+    try( CompileContext cc = new CompileContext() ) {
+      System.setErr(new PrintStream(buf));
+      assertEquals("6",cc.go("args","fact = { x -> x <= 1 ? x : x*fact(x-1) }; fact(3)")[0]);
+    } finally {
+      System.setErr(err);
+      System.clearProperty("aa.opstats");
+    }
+    String rpt = buf.toString();
+    assertTrue(rpt.startsWith("Phase ms: parse="));
+    assertTrue(rpt.matches("(?s).*\\Rvalue +Call +[1-9].*"));
+    assertTrue(rpt.matches("(?s).*\\Rreduce +Call +[1-9].*"));
+    assertFalse(OpStats.ON);    // Not in this copy
+  }
+
+  // The top scope is restored from a snapshot between compiles; compiles
+  // which call, inline and clone primitives leave no trace on it.
+  @Test public void testTopSnapshot() {
+    String prims = Env.top_scope()._scope.dumprpo(true,true);
+    test("fact = { x -> x <= 1 ? x : x*fact(x-1) }; fact(3)",TypeInt.con(6));
+    test("x=3; mul2={x -> x*2}; mul2(2.1)+mul2(x)",TypeFlt.con(2.1*2.0+3*2));
+    assertEquals(prims,Env.top_scope()._scope.dumprpo(true,true));
+    test("fact = { x -> x <= 1 ? x : x*fact(x-1) }; fact(3)",TypeInt.con(6));
+  }
+
+  // Each compile interns into a fresh generation; types from earlier compiles
+  // are held weakly, but those still held stay unique across a GC.  Whether
+  // the GC reclaims any is up to the collector, so is not asserted.
+  @Test public void testInternGenerations() {
+    String prog = "A= :@{n=A?; v=int}; A(@{n=0;v=3})";
+    TypeStruct ts0;
+    try( TypeEnv te = run(prog) ) { ts0 = (TypeStruct)te._tmem.ld((TypeMemPtr)te._t); }
+    test("fact = { x -> x <= 1 ? x : x*fact(x-1) }; fact(3)",TypeInt.con(6));
+    System.gc();
+    try( TypeEnv te = run(prog) ) {
+      assertSame(ts0,te._tmem.ld((TypeMemPtr)te._t));
+    }
+    assertTrue(Type.intern_stats().startsWith("types: perm "));
+  }
+
+  // Memories differing only in aliases a pointer does not reach share its
+  // sharpened result, through the shared sharpen cache.
+  @Test public void testSharpenCache() {
+    try( TypeEnv te = run("A= :@{n=A?; v=int}; A(@{n=0;v=3})") ) {
+      TypeMemPtr dull = (TypeMemPtr)te._t.simple_ptr();
+      TypeMem mem1 = te._tmem.set(BitsAlias.new_alias(BitsAlias.REC),TypeStr.ABC);
+      TypeMem mem2 = te._tmem.set(BitsAlias.new_alias(BitsAlias.REC),TypeStr.ABC);
+      TypeMem.sharp_cache_capacity(TypeMem.SHARP_CACHE_DEFAULT); // Clears the cache and stats
+      TypeMemPtr sharp = mem1.sharpen(dull);
+      assertSame(sharp,mem2.sharpen(dull));
+      assertSame(sharp,te._tmem.sharpen(dull));
+      assertEquals(1,TypeMem.SHARP_MISSES.get());
+      assertTrue(TypeMem.SHARP_HITS.get() >= 1);
+      assertTrue(TypeMem.sharp_cache_stats().startsWith("sharpen cache 1/"));
+    }
+  }
+
+  // The sparse and fork-join GCP solvers reach the same fixed point as the
+  // worklist solver; the sparse one with fewer value() and live() calls.
+  @Test public void testGCPSolvers() {
+    String[] progs = new String[]{
+      "fib = { x -> x <= 1 ? 1 : fib(x-1)+fib(x-2) }; fib(4)",
+      "map={x -> x ? @{nn=map(x.n);vv=x.v*x.v} : 0}; map(@{n=0;v=1.2})",
+      "x=3; fun:{real->real}={x -> x*2}; fun(2.1)+fun(x)",
+      "dist={p->p.x*p.x+p.y*p.y}; dist(@{x=1})",
+    };
+    long[] calls = new long[3];
+    boolean sparse = GVNGCM.SPARSE_GCP;  int par = GVNGCM.PAR_GCP; // As set for the whole suite
+    for( String prog : progs ) {
+      String[] rez = new String[3];
+      for( int i=0; i<3; i++ ) { // Worklist, sparse, fork-join
+        GVNGCM.SPARSE_GCP = i==1;
+        GVNGCM.PAR_GCP = i==2 ? 4 : 0;
+        long cnt = Env.GVN._gcp_vals+Env.GVN._gcp_lives;
+        try( TypeEnv te = Exec.open(Env.file_scope(Env.top_scope()),"args",prog) ) {
+          rez[i] = te._t+" "+te._tmem+" "+te._errs;
+        } finally {
+          GVNGCM.SPARSE_GCP = sparse;
+          GVNGCM.PAR_GCP = par;
+        }
+        calls[i] += Env.GVN._gcp_vals+Env.GVN._gcp_lives-cnt;
+      }
+      assertEquals(rez[0],rez[1]);
+      assertEquals(rez[0],rez[2]);
+    }
+    assertTrue(calls[1] < calls[0]);
+  }
+
+  // Inlining is tuned through FunNode.INLINE: the compilation budget, the
+  // limits, or a subclass overriding the hooks.  Each stricter policy makes
+  // its counted decisions, and inlining less never sharpens the result.
+  @Test public void testInlinePolicy() {
+    String prog = "x=3; mul2={x -> x*2}; mul2(2.1)+mul2(x)";
+    String fact = "fact = { x -> x <= 1 ? x : x*fact(x-1) }; fact(3)";
+    InlinePolicy dflt = FunNode.INLINE;
+    try {
+      Type t0 = inline(new InlinePolicy(),prog);
+      assertEquals(TypeFlt.con(2.1*2.0+3*2),t0);
+      assertTrue(FunNode.INLINE.decisions(InlinePolicy.Decision.SIZE_INLINED) > 0);
+      Type f0 = inline(new InlinePolicy(),fact);
+      assertEquals(TypeInt.con(6),f0);
+
+      // No budget: no user function is cloned
+      InlinePolicy broke = new InlinePolicy();
+      broke._budget = 0;
+      assertTrue(t0.isa(inline(broke,prog)));
+      assertTrue(broke.decisions(InlinePolicy.Decision.OVER_BUDGET) > 0);
+      assertEquals(0,broke.spent());
+
+      // No size-inlines of user functions; fact is not unrolled to a constant
+      InlinePolicy capped = new InlinePolicy();
+      capped._max_size_inlines = 0;
+      Type f1 = inline(capped,fact);
+      assertTrue(f0.isa(f1) && f0!=f1);
+      assertTrue(capped.decisions(InlinePolicy.Decision.CAPPED) > 0);
+
+      // The overridable hooks are consulted, and their answers counted
+      long[] calls = new long[3];
+      InlinePolicy big = new InlinePolicy() {
+        @Override public boolean too_big( int[] cnts, boolean self_recursive ) { calls[0]++; return true; }
+      };
+      assertTrue(t0.isa(inline(big,prog)));
+      long d = big.decisions(InlinePolicy.Decision.TOO_BIG);
+      assertTrue(0 < d && d <= calls[0]); // Progress checks ask again, uncounted
+      InlinePolicy picky = new InlinePolicy() {
+        @Override public int score( int ncons, int call_thunk, boolean self_recursive ) { calls[1]++; return ncons; }
+        @Override public boolean profitable( int[] cnts, int score ) { calls[2]++; return false; }
+      };
+      assertTrue(t0.isa(inline(picky,prog)));
+      d = picky.decisions(InlinePolicy.Decision.UNPROFITABLE);
+      assertTrue(calls[1] > 0 && 0 < d && d <= calls[2]);
+    } finally {
+      FunNode.INLINE = dflt;
+    }
+  }
+
+  // Compile under an inline policy; the policy's counts are its own
+  static private Type inline( InlinePolicy policy, String program ) {
+    FunNode.INLINE = policy;
+    try( TypeEnv te = run(program) ) {
+      return te._t;
+    }
+  }
+
   // Caller must close TypeEnv
   static private TypeEnv run( String program ) {
     TypeEnv te = Exec.open(Env.file_scope(Env.top_scope()),"args",program);
@@ -19,6 +19,7 @@ public class TestREPL {
   @Rule public final SystemErrRule sysErr = new SystemErrRule().enableLog().muteForSuccessfulTests();
 
   private String _prog;
+  private boolean _inc;         // Use the incremental REPL
   @Before public void open_repl() {
     REPL.init();
     _prog = "";
@@ -76,9 +77,27 @@ public class TestREPL {
     test("htab.put(\"Monday\",1)","0");
   }
 
+  // Incremental REPL; clean lines parse into the open Env, the rest fall back
+  // to a whole-program compile.
+  @Test public void testREPL05() {
+    REPL.init_inc();
+    sysOut.clearLog();
+    _inc = true;
+    test("2+3", "5");
+    test("x=3", "3");
+    test("x*x", "9");
+    REPL.go_inc("y*y");
+    assertTrue(sysOut.getLog().startsWith("stdin:4:Unknown ref 'y'"));
+    sysOut.clearLog();
+    test("sq={x->x*x}; sq 5","25");
+    test("fact = { x -> x <= 1 ? x : x*fact(x-1) }; fact(3)","6");
+    test("x+sq(x)","12");
+  }
+
   // Jam the code into STDIN, run the REPL one-step, read the STDOUT and compare.
   private void test( String partial, String expected ) {
-    _prog = REPL.go_one(_prog,partial);
+    if( _inc ) REPL.go_inc(partial);
+    else _prog = REPL.go_one(_prog,partial);
     String actual = sysOut.getLog();
     String exp = expected+System.lineSeparator()+REPL.prompt;
     assertEquals(exp,actual);
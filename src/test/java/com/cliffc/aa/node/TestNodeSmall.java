@@ -738,5 +738,108 @@ public class TestNodeSmall {
         tos[as[i]] = ts[i];
     return TypeMem.make0(tos);
   }
-}
 
+  // Each worklist order pulls the same work; pop() stays most-recent-first.
+  @Test public void testWorkOrder() {
+    Env.top_scope();
+    Node a = new ConNode<>(TypeInt.con(1)), b = new ConNode<>(TypeInt.con(2)), c = new ConNode<>(TypeInt.con(3));
+    Work work = new Work("test",false) { @Override public Node apply(Node n) { return null; } };
+    Work.Order old = Work.ORDER;
+    try {
+      Node[][] exps = new Node[][]{{c,a,b},{b,a,c},{a,b,c}}; // LIFO, FIFO, RPO
+      for( Work.Order order : Work.Order.values() ) {
+        Work.ORDER = order;
+        work.add(b);  work.add(a);  work.add(c);  work.add(b);
+        assertEquals(order.name(),Arrays.asList(exps[order.ordinal()]),Arrays.asList(work.next(),work.next(),work.next()));
+        assertTrue(work.isEmpty());
+        assertEquals(null,work.next());
+      }
+      Work.ORDER = Work.Order.RPO;
+      work.add(c);  work.add(a);  work.add(b);
+      assertEquals(a,work.next());
+      assertEquals(b,work.pop()); // LIFO, skipping the taken 'a'
+      work.del(c);
+      assertTrue(work.isEmpty());
+      assertEquals(null,work.pop());
+      work.add(b);  work.add(c);  work.add(a);
+      assertEquals(c,work.highest());
+      assertEquals(a,work.lowest());
+      assertEquals(b,work.highest());
+      assertEquals(null,work.lowest());
+    } finally {
+      Work.ORDER = old;
+    }
+  }
+
+  // Random edge edits keep every use list, and the back-pointers into it, in
+  // step with the defs.
+  @Test public void testEdges() {
+    Env.top_scope();
+    Random R = new Random(42);
+    Node[] defs = new Node[5];
+    for( int i=0; i<defs.length; i++ ) defs[i] = new ConNode<>(TypeInt.con(i)).keep();
+    Node[] users = new Node[4];
+    for( int i=0; i<users.length; i++ ) users[i] = new RegionNode(defs[0],null,defs[1],defs[0]).keep();
+    for( int k=0; k<10000; k++ ) {
+      Node u = users[R.nextInt(users.length)];
+      Node d = R.nextInt(6)==0 ? null : defs[R.nextInt(defs.length)];
+      int len = u._defs._len;
+      switch( len==0 ? 0 : R.nextInt(7) ) {
+      case 0: u.add_def(d); break;
+      case 1: u.set_def(R.nextInt(len),d); break;
+      case 2: u.insert(R.nextInt(len+1),d); break;
+      case 3: u.del(R.nextInt(len)); break;
+      case 4: u.pop(); break;
+      case 5: u.remove(R.nextInt(len)); break;
+      case 6:                   // Move all uses of one def to another
+        Node d0 = defs[R.nextInt(defs.length)], d1 = defs[R.nextInt(defs.length)];
+        if( d0 != d1 ) d0.insert(d1);
+        break;
+      }
+      if( u._defs._len > 8 ) u.pop();
+      for( Node d2 : defs ) {
+        assertTrue(d2.check_edges());
+        int cnt=0;
+        for( Node u2 : users )
+          for( int i=0; i<u2._defs._len; i++ )
+            if( u2.in(i)==d2 ) cnt++;
+        assertEquals(cnt,d2._uses._len);
+      }
+      for( Node u2 : users ) assertTrue(u2.check_edges());
+    }
+  }
+
+  // Random put/get/remove on a private GVN table, checked against a HashMap.
+  // Many of the Nodes are equal to one another, and removes shift probe runs.
+  @Test public void testGVNTable() {
+    Env.top_scope();
+    Random R = new Random(42);
+    Node[] defs = new Node[8];
+    for( int i=0; i<defs.length; i++ ) defs[i] = new ConNode<>(TypeInt.con(i)).keep();
+    GVNTable gvn = new GVNTable();
+    HashMap<Node,Node> ref = new HashMap<>();
+    ArrayList<Node> in = new ArrayList<>();
+    for( int k=0; k<20000; k++ ) {
+      if( in.isEmpty() || R.nextInt(3)!=0 ) {
+        Node n = new RegionNode(null,defs[R.nextInt(defs.length)],defs[R.nextInt(defs.length)],defs[R.nextInt(defs.length)]);
+        Node x = gvn.put_if_absent(n);
+        assertEquals(ref.get(n),x);
+        if( x==null ) { ref.put(n,n); in.add(n); assertTrue(gvn.contains(n)); }
+        else assertTrue(!gvn.contains(n));
+      } else {
+        Node n = in.remove(R.nextInt(in.size()));
+        assertEquals(n,gvn.remove(n));
+        ref.remove(n);
+        assertTrue(!gvn.contains(n));
+        assertEquals(null,gvn.get(n));
+      }
+      assertEquals(ref.size(),gvn.size());
+    }
+    for( Node n : in ) assertEquals(n,gvn.get(n));
+    assertEquals(in.size(),gvn.keys().length);
+    assertTrue(gvn.stats().startsWith("gvn table "+in.size()+"/"));
+    gvn.clear();
+    assertEquals(0,gvn.size());
+    for( Node n : in ) assertEquals(null,gvn.get(n));
+  }
+}
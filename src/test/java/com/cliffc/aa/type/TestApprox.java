@@ -745,4 +745,23 @@ public class TestApprox {
     TypeStruct rez = dsp2.approx(CUTOFF,alias);
     assertEquals(dsp3,rez);
   }
+
+  // A long chain of structs, all one alias, approximates to the same cycle as
+  // a short one.  The approximation walks and meets off explicit stacks, so
+  // the depth is not limited by the Java stack.
+  @Test public void testApproxDeep() {
+    Object dummy0 = TypeStruct.TYPES;
+    Object dummy1 = TypeMemPtr.TYPES;
+    final int CUTOFF = 2;
+    int alias = BitsAlias.new_alias(BitsAlias.REC);
+    BitsAlias aliases = BitsAlias.make0(alias).meet_nil();
+    TypeStruct[] levels = new TypeStruct[1000];
+    Type ptr = Type.NIL;
+    for( int i=0; i<levels.length; i++ ) { // Small constant first: interning does not walk the chain
+      levels[i] = TypeStruct.make(TypeFld.NO_DISP,TypeFld.make("v",TypeInt.con(i%100),1),TypeFld.make("n",ptr,2));
+      ptr = TypeMemPtr.make(aliases,levels[i]);
+    }
+    TypeStruct shallow = levels[99].approx(CUTOFF,alias);
+    assertSame(shallow,levels[levels.length-1].approx(CUTOFF,alias));
+  }
 }
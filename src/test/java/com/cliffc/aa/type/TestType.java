@@ -4,10 +4,16 @@ import com.cliffc.aa.node.PrimNode;
 import com.cliffc.aa.util.Ary;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.*;
 
 import static com.cliffc.aa.type.TypeMemPtr.NO_DISP;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
@@ -49,6 +55,108 @@ public class TestType {
 
   }
 
+  // Sets with all bits below 128 are built in registers, larger ones in
+  // arrays.  Round-tripping through a large set gets the same instances.
+  @Test public void testBitsSmall() {
+    Random R = new Random(42);
+    int[] as = new int[150];    // Random tree, spanning bit 128
+    for( int i=0; i<as.length; i++ )
+      as[i] = BitsAlias.new_alias(i<4 ? BitsAlias.REC : as[R.nextInt(i)]);
+    int big = BitsAlias.new_alias(BitsAlias.REC);
+    assertTrue(big >= 128);
+    for( int k=0; k<2000; k++ ) {
+      BitsAlias a = BitsAlias.make0(as[R.nextInt(64)]).set(as[R.nextInt(as.length)]);
+      BitsAlias b = BitsAlias.make0(as[R.nextInt(64)]).set(as[R.nextInt(as.length)]);
+      if( R.nextInt(4)==0 ) a = a.meet_nil();
+      BitsAlias a2 = a.set(big), b2 = b.set(big);
+      assertSame(a,a2.clear(big));
+      assertSame(a.meet(b),a2.meet(b2).clear(big));
+      assertSame(a.dual().meet(b.dual()),a2.dual().meet(b2.dual()).clear(big));
+      assertSame(a.strip_nil(),a2.strip_nil().clear(big));
+    }
+  }
+
+  // Ancestor queries on a random tree, spanning bit 128, agree with walking
+  // the parent chain.
+  @Test public void testTreeAncestors() {
+    Random R = new Random(42);
+    Bits.Tree<BitsAlias> tree = new Bits.Tree<>();
+    int[] bits = new int[300];
+    for( int i=0; i<bits.length; i++ )
+      bits[i] = tree.split(i==0 ? 0 : bits[R.nextInt(i)]);
+    for( int k=0; k<5000; k++ ) {
+      int kid = bits[R.nextInt(bits.length)], par = R.nextInt(kid+1);
+      long[] set = new long[5];
+      for( int j=0; j<4; j++ ) { int b = bits[R.nextInt(bits.length)]; set[b>>6] |= 1L<<b; }
+      boolean is_par=false, par_set=false, small_set=false;
+      int nearest=0;
+      for( int p=kid; ; p = tree.parent(p) ) {
+        is_par |= p==par;
+        if( p != kid && (set[p>>6]&(1L<<p)) != 0 ) {
+          par_set = true;
+          if( p < 128 ) { small_set = true; if( nearest==0 ) nearest = p; }
+        }
+        if( p==0 ) break;
+      }
+      assertEquals(is_par,tree.is_parent(par,kid));
+      assertEquals(par_set,tree.par_set(kid,set));
+      assertEquals(small_set,tree.par_set(kid,set[0],set[1]));
+      assertEquals(nearest,tree.nearest(kid,set[0],set[1]));
+    }
+  }
+
+  // Many threads split a shared tree, and intern the same Bits, at once.  Bit
+  // numbers are unique, every kid is in its parent's list exactly once, and
+  // all threads get the same interned Bits.
+  @Test(timeout=60000) public void testConcurrentTree() throws Exception {
+    Bits.Tree<BitsAlias> tree = new Bits.Tree<>();
+    int root = tree.split(0);
+    int[] as = new int[140];    // Aliases to intern, spanning bit 128
+    for( int i=0; i<as.length; i++ )
+      as[i] = BitsAlias.new_alias(BitsAlias.REC);
+    int nthreads = Math.max(4,Runtime.getRuntime().availableProcessors()), nsplits = 2000, nsets = 2000;
+    ExecutorService pool = Executors.newFixedThreadPool(nthreads);
+    try {
+      ArrayList<Callable<Object[]>> work = new ArrayList<>();
+      for( int t=0; t<nthreads; t++ ) {
+        final int seed = t;
+        work.add(() -> {
+          Random R = new Random(seed);
+          int[] bits = new int[nsplits];
+          for( int k=0; k<nsplits; k++ ) {
+            int par = k==0 ? root : bits[R.nextInt(k)];
+            int bit = bits[k] = tree.split(par);
+            assertEquals(par,tree.parent(bit));
+            assertTrue(tree.is_parent(par) && tree.is_parent(root,bit));
+          }
+          R = new Random(42);   // All threads intern the same sets
+          BitsAlias[] sets = new BitsAlias[nsets];
+          for( int k=0; k<nsets; k++ )
+            sets[k] = BitsAlias.make0(as[R.nextInt(as.length)]).set(as[R.nextInt(as.length)]).set(as[R.nextInt(as.length)]);
+          return new Object[]{bits,sets};
+        });
+      }
+      BitSet seen = new BitSet();
+      Object[] sets0 = null;
+      for( Future<Object[]> f : pool.invokeAll(work) ) {
+        for( int bit : (int[])f.get()[0] ) {
+          assertTrue(!seen.get(bit));
+          seen.set(bit);
+          int[] kids = tree.kids(tree.parent(bit));
+          int n=0;
+          for( int j=1; j<kids[0]; j++ ) if( kids[j]==bit ) n++;
+          assertEquals(1,n);
+        }
+        Object[] sets = (Object[])f.get()[1];
+        if( sets0==null ) sets0 = sets;
+        for( int k=0; k<nsets; k++ ) assertSame(sets0[k],sets[k]);
+      }
+      assertEquals(nthreads*nsplits+2,tree.size());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
   // Want Bits to support meet/join of fidxs for Unresolved:
   //     4.join.5.join.6 == {+4+5+6}
   //     4.meet.5.meet.6 == { 4&5&6}
@@ -511,6 +619,37 @@ public class TestType {
             assertTrue( rez[i0][j0].isa(rez[i1][j1]) );
   }
 
+  // Memory is persistent; one-alias changes path-copy the mapping, and come
+  // out the same as making the whole mapping afresh.
+  @Test public void testMemPersistent() {
+    Object dummy0 = TypeStruct.TYPES;
+    int par = BitsAlias.new_alias(BitsAlias.REC);
+    int[] as = new int[80];     // Spans several radix leaves
+    for( int i=0; i<as.length; i++ ) as[i] = BitsAlias.new_alias(i<40 ? BitsAlias.REC : par);
+    TypeObj[] tos = new TypeObj[as[as.length-1]+1];
+    tos[1] = TypeObj.ISUSED;
+    for( int i=0; i<as.length; i+=2 ) tos[as[i]] = TypeStr.con(("s"+i).intern());
+    TypeMem mem = TypeMem.make0(tos.clone());
+    Random R = new Random(123);
+    ArrayList<TypeMem> mems = new ArrayList<>();
+    for( int i=0; i<500; i++ ) {
+      int alias = R.nextInt(8)==0 ? par : as[R.nextInt(as.length)];
+      int x = R.nextInt(4);     // Includes dups of parents, and of kids
+      TypeObj obj = x==0 ? TypeObj.ISUSED : (x==1 ? mem.at(par) : TypeStr.con(("x"+R.nextInt(3)).intern()));
+      tos = Arrays.copyOf(mem.alias2objs(),Math.max(mem.len(),alias+1));
+      tos[0] = null;
+      tos[alias] = obj;
+      TypeMem fresh = TypeMem.make0(tos);
+      mem = mem.set(alias,obj);
+      assertSame(fresh,mem);
+      assertSame(obj,mem.at(alias));
+      // Meets against earlier versions share most of their structure
+      TypeMem old = mems.isEmpty() ? mem : mems.get(R.nextInt(mems.size()));
+      assertSame(old.meet_flat(mem,false),old.meet(mem));
+      mems.add(mem);
+    }
+  }
+
   // Validate crush is monotonic
   @Test public void testCrush() {
     TypeObj[] objs = new TypeObj[]{
@@ -548,6 +687,85 @@ public class TestType {
   }
 
 
+  // A small meet memo evicts, but never changes a meet.
+  @Test public void testMeetCache() {
+    Ary<Type> ts = Type.ALL_TYPES();
+    Type[][] mts = new Type[ts._len][ts._len];
+    for( int i=0; i<ts._len; i++ )
+      for( int j=0; j<ts._len; j++ )
+        mts[i][j] = ts.at(i).meet(ts.at(j));
+    try {
+      Type.meet_cache_capacity(64);
+      for( int r=0; r<2; r++ )
+        for( int i=0; i<ts._len; i++ )
+          for( int j=0; j<ts._len; j++ )
+            assertEquals(mts[i][j],ts.at(i).meet(ts.at(j)));
+      assertEquals(64,Type.meet_cache_size());
+      assertTrue(Type.MEET_EVICTS.get() > 0);
+      assertTrue(Type.MEET_HITS.get() > 0);
+    } finally {
+      Type.meet_cache_capacity(Type.MEET_CACHE_DEFAULT);
+    }
+  }
+
+  // Meets from many threads agree with a single-threaded oracle.  A small
+  // memo keeps the threads missing, and so building types, concurrently.
+  @Test(timeout=60000) public void testConcurrentMeet() throws Exception {
+    Ary<Type> ts = Type.ALL_TYPES();
+    int len = ts._len;
+    Type[] oracle = new Type[len*len];
+    for( int i=0; i<len; i++ )
+      for( int j=0; j<len; j++ )
+        oracle[i*len+j] = ts.at(i).meet(ts.at(j));
+    int nthreads = Math.max(4,Runtime.getRuntime().availableProcessors());
+    ExecutorService pool = Executors.newFixedThreadPool(nthreads);
+    try {
+      Type.meet_cache_capacity(256);
+      ArrayList<Callable<Integer>> work = new ArrayList<>();
+      for( int t=0; t<nthreads; t++ ) {
+        final int seed = t;
+        work.add(() -> {
+          Random R = new Random(seed);
+          int errs=0;
+          for( int k=0; k<len*len; k++ ) {
+            int i = R.nextInt(len), j = R.nextInt(len);
+            if( ts.at(i).meet(ts.at(j)) != oracle[i*len+j] ) errs++;
+          }
+          return errs;
+        });
+      }
+      for( Future<Integer> f : pool.invokeAll(work) )
+        assertEquals(0,(int)f.get()); // Also rethrows any failure in the thread
+    } finally {
+      pool.shutdown();
+      Type.meet_cache_capacity(Type.MEET_CACHE_DEFAULT);
+    }
+  }
+
+  // Making an already-interned type probes the intern table by its fields,
+  // and takes nothing from the pools.
+  @Test public void testProbe() {
+    Object dummy = TypeStruct.TYPES;
+    TypeInt   i0 = TypeInt.con(12345);
+    Type      f0 = TypeFlt.con(1.25);
+    TypeFld  fd0 = TypeFld.make("probe",i0,1);
+    TypeTuple t0 = TypeTuple.make(i0,f0);
+    int ni = Type.POOLS[Type.TINT  ].mallocs(), nf = Type.POOLS[Type.TFLT ].mallocs();
+    int nd = Type.POOLS[Type.TFLD  ].mallocs(), nt = Type.POOLS[Type.TTUPLE].mallocs();
+    assertSame(i0 ,TypeInt.con(12345));
+    assertSame(f0 ,TypeFlt.con(1.25));
+    assertSame(fd0,TypeFld.make("probe",i0,1));
+    assertSame(t0 ,TypeTuple.make(i0,f0));
+    assertEquals(ni,Type.POOLS[Type.TINT  ].mallocs());
+    assertEquals(nf,Type.POOLS[Type.TFLT  ].mallocs());
+    assertEquals(nd,Type.POOLS[Type.TFLD  ].mallocs());
+    assertEquals(nt,Type.POOLS[Type.TTUPLE].mallocs());
+    // A named type is not the same as the unnamed one
+    TypeInt n0 = i0.set_name("probe:");
+    assertSame(i0,TypeInt.con(12345));
+    assertSame(n0,i0.set_name("probe:"));
+  }
+
   @Test public void testCommuteSymmetricAssociative() {
     assertTrue(Type.check_startup());
   }